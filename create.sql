@@ -1,11 +1,18 @@
-create table tb_category (id bigint generated by default as identity, name varchar(255), primary key (id));
-create table tb_order (status smallint check (status between 0 and 4), client_id bigint, id bigint generated by default as identity, moment TIMESTAMP WITHOUT TIME ZONE, primary key (id));
+create sequence tb_category_seq start with 1 increment by 50;
+create sequence tb_order_seq start with 1 increment by 50;
+create sequence tb_product_seq start with 1 increment by 50;
+create sequence tb_role_seq start with 1 increment by 50;
+create sequence tb_user_seq start with 1 increment by 50;
+create table tb_catalog_version (id bigint not null, modified_at timestamp(6) with time zone, primary key (id));
+create table tb_category (id bigint not null, name varchar(255), primary key (id));
+create table tb_order (status smallint check (status between 0 and 4), client_id bigint, id bigint not null, moment TIMESTAMP WITHOUT TIME ZONE, primary key (id));
 create table tb_order_item (price float(53), quantity integer, order_id bigint not null, product_id bigint not null, primary key (order_id, product_id));
 create table tb_payment (moment TIMESTAMP WITHOUT TIME ZONE, order_id bigint not null, primary key (order_id));
-create table tb_product (price float(53), id bigint generated by default as identity, description TEXT, img_url varchar(255), name varchar(255), primary key (id));
+create table tb_product (price float(53) not null, version INTEGER DEFAULT 0, id bigint not null, updated_at TIMESTAMP WITHOUT TIME ZONE, description TEXT, img_url varchar(255), name varchar(255) not null, primary key (id));
+create index idx_product_updated_at on tb_product (updated_at);
 create table tb_product_category (category_id bigint not null, product_id bigint not null, primary key (category_id, product_id));
-create table tb_role (id bigint generated by default as identity, authority varchar(255), primary key (id));
-create table tb_user (birth_date date, id bigint generated by default as identity, email varchar(255) unique, name varchar(255), password varchar(255), phone varchar(255), primary key (id));
+create table tb_role (id bigint not null, authority varchar(255), primary key (id));
+create table tb_user (birth_date date, id bigint not null, email varchar(255) unique, name varchar(255), password varchar(255), phone varchar(255), primary key (id));
 create table tb_user_role (role_id bigint not null, user_id bigint not null, primary key (role_id, user_id));
 alter table if exists tb_order add constraint FKi0x0rv7d65vsceuy33km9567n foreign key (client_id) references tb_user;
 alter table if exists tb_order_item add constraint FK4h5xid5qehset7qwe5l9c997x foreign key (product_id) references tb_product;
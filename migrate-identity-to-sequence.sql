@@ -0,0 +1,17 @@
+-- Migração de bancos criados com GenerationType.IDENTITY para as sequences
+-- usadas pelas entidades (allocationSize = 50). Rodar uma vez no PostgreSQL,
+-- com a aplicação parada, antes de subir a versão nova.
+-- Cada sequence passa a começar depois do maior id existente mais um bloco
+-- inteiro de alocação, para o otimizador pooled do Hibernate não reaproveitar IDs.
+
+CREATE SEQUENCE IF NOT EXISTS tb_category_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tb_order_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tb_product_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tb_role_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tb_user_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('tb_category_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tb_category));
+SELECT setval('tb_order_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tb_order));
+SELECT setval('tb_product_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tb_product));
+SELECT setval('tb_role_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tb_role));
+SELECT setval('tb_user_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tb_user));
@@ -0,0 +1,10 @@
+-- name e price de tb_product passam a NOT NULL (chaves do keyset de
+-- GET /products/scroll). O ddl-auto=update não altera colunas existentes, então
+-- rodar uma vez no PostgreSQL antes de subir a versão nova. As duas primeiras
+-- consultas mostram as linhas que impediriam a alteração; corrija-as antes.
+
+SELECT id FROM tb_product WHERE name IS NULL;
+SELECT id, name FROM tb_product WHERE price IS NULL;
+
+ALTER TABLE tb_product ALTER COLUMN name SET NOT NULL;
+ALTER TABLE tb_product ALTER COLUMN price SET NOT NULL;
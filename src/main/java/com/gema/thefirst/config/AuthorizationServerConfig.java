@@ -1,18 +1,16 @@
 package com.gema.thefirst.config;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.time.Duration;
 import java.util.List;
-import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -23,9 +21,9 @@ import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.authentication.ClientSecretAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
@@ -44,14 +42,18 @@ import org.springframework.security.oauth2.server.authorization.token.OAuth2Toke
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.security.web.SecurityFilterChain;
 
+import com.gema.thefirst.config.authorization.CaffeineOAuth2AuthorizationService;
+import com.gema.thefirst.config.authorization.ExpiringJdbcOAuth2AuthorizationService;
+import com.gema.thefirst.config.authorization.NoOpOAuth2AuthorizationService;
 import com.gema.thefirst.config.customgrant.CustomPasswordAuthenticationConverter;
 import com.gema.thefirst.config.customgrant.CustomPasswordAuthenticationProvider;
 import com.gema.thefirst.config.customgrant.CustomUserAuthorities;
 import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 // Este código configura um servidor de autorização que utiliza OAuth2 para autenticação, gerencia tokens JWT e permite personalizar a geração de tokens. Ele usa uma combinação de serviços em memória e métodos de configuração para garantir que a autenticação e a autorização sejam tratadas adequadamente em uma aplicação que requer segurança robusta.
 
 @Configuration
@@ -70,6 +72,47 @@ public class AuthorizationServerConfig {
   @Value("${security.jwt.duration}")
   private Integer jwtDurationSeconds;
 
+  // JWT já validados guardados pelo resource server
+  @Value("${security.jwt.cache.max-size}")
+  private long jwtCacheMaxSize;
+
+  // locais dos arquivos PEM das chaves de assinatura; a primeira assina
+  @Value("${security.jwt.keys}")
+  private String[] jwtKeyLocations;
+
+  @Autowired
+  private ResourceLoader resourceLoader;
+
+  // onde as autorizações emitidas ficam registradas: memory, none ou jdbc
+  @Value("${security.authorization-store.type}")
+  private String authorizationStore;
+
+  @Value("${security.authorization-store.max-size}")
+  private long authorizationStoreMaxSize;
+
+  @Value("${security.bcrypt.strength}")
+  private int bcryptStrength;
+
+  // 0: um thread por processador
+  @Value("${security.password-hashing.threads}")
+  private int passwordHashingThreads;
+
+  @Value("${security.password-hashing.queue-size}")
+  private int passwordHashingQueueSize;
+
+  // por quanto tempo um segredo de cliente já conferido dispensa o BCrypt
+  @Value("${security.client-secret-cache.ttl}")
+  private Duration clientSecretCacheTtl;
+
+  @Value("${security.client-secret-cache.max-size}")
+  private long clientSecretCacheMaxSize;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
   // @Autowired: Injeta o UserDetailsService, que é usado para buscar informações
   // do usuário para autenticação.
   @Autowired
@@ -81,7 +124,8 @@ public class AuthorizationServerConfig {
   // CustomPasswordAuthenticationConverter e um
   // CustomPasswordAuthenticationProvider.
   // Habilita o suporte a recursos OAuth2 e configura o servidor de recursos para
-  // usar JWT.
+  // usar JWT. A autenticação do cliente por segredo passa a conferir o segredo
+  // com um cache dos já verificados (VerifiedSecretCachingEncoder).
   @Bean
   @Order(2)
   public SecurityFilterChain asSecurityFilterChain(HttpSecurity http) throws Exception {
@@ -89,7 +133,13 @@ public class AuthorizationServerConfig {
     OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
 
     // @formatter:off
+		PasswordEncoder clientSecretEncoder = new VerifiedSecretCachingEncoder(passwordEncoder(), clientSecretCacheTtl,
+				clientSecretCacheMaxSize, meterRegistry);
 		http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
+			.clientAuthentication(clientAuthentication -> clientAuthentication
+				.authenticationProviders(providers -> providers.stream()
+					.filter(ClientSecretAuthenticationProvider.class::isInstance)
+					.forEach(provider -> ((ClientSecretAuthenticationProvider) provider).setPasswordEncoder(clientSecretEncoder))))
 			.tokenEndpoint(tokenEndpoint -> tokenEndpoint
 				.accessTokenRequestConverter(new CustomPasswordAuthenticationConverter())
 				.authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService(), tokenGenerator(), userDetailsService, passwordEncoder())));
@@ -100,10 +150,20 @@ public class AuthorizationServerConfig {
     return http.build();
   }
 
-  // Cria um serviço de autorização em memória para gerenciar autorizações.
+  // Serviço que registra cada autorização emitida pelo grant password.
+  // memory: em memória, limitado e expirando junto com o JWT (um nó só);
+  // none: não registra, os JWT se validam pela assinatura;
+  // jdbc: tabela oauth2_authorization, compartilhada entre os nós.
   @Bean
   public OAuth2AuthorizationService authorizationService() {
-    return new InMemoryOAuth2AuthorizationService();
+    return switch (authorizationStore) {
+      case "memory" -> new CaffeineOAuth2AuthorizationService(Duration.ofSeconds(jwtDurationSeconds),
+          authorizationStoreMaxSize, meterRegistry);
+      case "none" -> new NoOpOAuth2AuthorizationService();
+      case "jdbc" -> new ExpiringJdbcOAuth2AuthorizationService(jdbcTemplate, registeredClientRepository());
+      default -> throw new IllegalStateException(
+          "security.authorization-store.type must be memory, none or jdbc, not " + authorizationStore);
+    };
   }
 
   // Cria um serviço para gerenciar consentimentos de autorização, também em
@@ -113,19 +173,25 @@ public class AuthorizationServerConfig {
     return new InMemoryOAuth2AuthorizationConsentService();
   }
 
-  // Define o algoritmo de codificação de senhas, usando o BCrypt.
+  // Define o algoritmo de codificação de senhas, usando o BCrypt com o custo de
+  // security.bcrypt.strength (só vale para hashes novos: cada hash guarda o
+  // seu custo), num pool limitado (ver BoundedPasswordEncoder).
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    int threads = passwordHashingThreads > 0 ? passwordHashingThreads : Runtime.getRuntime().availableProcessors();
+    return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), threads,
+        passwordHashingQueueSize, meterRegistry);
   }
 
   // Cria um repositório de clientes registrados em memória, configurando um
   // cliente com ID, segredo, escopos e tipo de concessão de autorização.
+  // O id é o próprio client id, igual em todos os nós: o store jdbc grava o id
+  // do cliente em cada autorização e o procura de volta ao ler.
   @Bean
   public RegisteredClientRepository registeredClientRepository() {
     // @formatter:off
 		RegisteredClient registeredClient = RegisteredClient
-			.withId(UUID.randomUUID().toString())
+			.withId(clientId)
 			.clientId(clientId)
 			.clientSecret(passwordEncoder().encode(clientSecret))
 			.scope("read")
@@ -175,56 +241,54 @@ public class AuthorizationServerConfig {
     return new DelegatingOAuth2TokenGenerator(jwtGenerator, accessTokenGenerator);
   }
 
-  // Customiza os tokens JWT adicionando informações como autoridades e nome de
-  // usuário ao token de acesso.
+  // Customiza os tokens JWT adicionando informações como autoridades, nome de
+  // usuário e id do usuário (user_id) ao token de acesso. O cabeçalho leva o
+  // algoritmo e o kid da chave ativa, que é como o NimbusJwtEncoder escolhe a
+  // chave quando há mais de uma.
   @Bean
   public OAuth2TokenCustomizer<JwtEncodingContext> tokenCustomizer() {
+    JwtSigningKeys keys = jwtSigningKeys();
     return context -> {
+      context.getJwsHeader().algorithm(keys.getAlgorithm()).keyId(keys.getActiveKeyId());
       OAuth2ClientAuthenticationToken principal = context.getPrincipal();
       CustomUserAuthorities user = (CustomUserAuthorities) principal.getDetails();
-      List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority()).toList();
+      // ArrayList (não toList()): os claims vão para o store jdbc, e o Jackson dele
+      // só lê de volta coleções da allowlist
+      List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority())
+          .collect(Collectors.toList());
       if (context.getTokenType().getValue().equals("access_token")) {
         // @formatter:off
 				context.getClaims()
 					.claim("authorities", authorities)
 					.claim("username", user.getUsername());
 				// @formatter:on
+        if (user.getUserId() != null) {
+          context.getClaims().claim("user_id", user.getUserId());
+        }
       }
     };
   }
 
   // Cria um decodificador JWT que pode ser usado para validar tokens recebidos.
+  // Os tokens já validados ficam em cache até o exp (ver CachingJwtDecoder).
   @Bean
   public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
-    return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+    return new CachingJwtDecoder(OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource), jwtCacheMaxSize,
+        Duration.ofSeconds(jwtDurationSeconds), meterRegistry);
   }
 
-  // Cria um conjunto de chaves públicas e privadas RSA para assinatura de tokens.
+  // Chaves de assinatura: lidas dos PEM de security.jwt.keys ou, sem eles,
+  // uma chave efêmera (ver JwtSigningKeys).
   @Bean
-  public JWKSource<SecurityContext> jwkSource() {
-    RSAKey rsaKey = generateRsa();
-    JWKSet jwkSet = new JWKSet(rsaKey);
-    return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
-  }
-
-  // generateRsa() e generateRsaKey(): Métodos utilitários para gerar um par de
-  // chaves RSA (pública e privada) para a assinatura dos tokens.
-  private static RSAKey generateRsa() {
-    KeyPair keyPair = generateRsaKey();
-    RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-    RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-    return new RSAKey.Builder(publicKey).privateKey(privateKey).keyID(UUID.randomUUID().toString()).build();
+  public JwtSigningKeys jwtSigningKeys() {
+    return JwtSigningKeys.load(jwtKeyLocations, resourceLoader);
   }
 
-  private static KeyPair generateRsaKey() {
-    KeyPair keyPair;
-    try {
-      KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-      keyPairGenerator.initialize(2048);
-      keyPair = keyPairGenerator.generateKeyPair();
-    } catch (Exception ex) {
-      throw new IllegalStateException(ex);
-    }
-    return keyPair;
+  // Expõe as chaves para o encoder, o decoder e o endpoint /oauth2/jwks (que
+  // publica só as partes públicas).
+  @Bean
+  public JWKSource<SecurityContext> jwkSource() {
+    JWKSet jwkSet = jwtSigningKeys().getJwkSet();
+    return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
   }
 }
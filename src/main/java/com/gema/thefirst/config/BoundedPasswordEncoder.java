@@ -0,0 +1,96 @@
+package com.gema.thefirst.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.gema.thefirst.services.exceptions.PasswordHashingRejectedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import static com.gema.thefirst.constants.Constants.LOGIN_SOBRECARREGADO;
+
+// Roda o BCrypt (senha do usuário no grant password e segredo do cliente na
+// autenticação do cliente) num pool próprio de tamanho fixo com fila limitada.
+// Uma onda de logins ocupa no máximo esses threads de CPU, e o resto do app
+// continua atendendo. Com a fila cheia, recusa na hora com
+// PasswordHashingRejectedException (503 pelo PasswordHashingRejectedFilter),
+// em vez de empilhar pedidos que venceriam o timeout do cliente de qualquer forma.
+// Com fila 0, só entra o hash que encontra um thread livre.
+// O thread da requisição só espera o resultado, sem gastar CPU.
+// Métricas: executor.queued/executor.active{name=password_hashing},
+// password.hash (latência de cada hash, por operação) e password.hash.rejected.
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final Timer matchesTimer;
+  private final Timer encodeTimer;
+  private final Counter rejected;
+
+  public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueSize, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new SynchronousQueue<>(),
+        new CustomizableThreadFactory("password-hash-"));
+    this.matchesTimer = Timer.builder("password.hash").tag("operation", "matches").register(meterRegistry);
+    this.encodeTimer = Timer.builder("password.hash").tag("operation", "encode").register(meterRegistry);
+    this.rejected = Counter.builder("password.hash.rejected").register(meterRegistry);
+    new ExecutorServiceMetrics(executor, "password_hashing", Tags.empty()).bindTo(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return run(() -> delegate.encode(rawPassword), encodeTimer);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return run(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private <T> T run(Supplier<T> work, Timer timer) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> timer.record(work));
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingRejectedException(LOGIN_SOBRECARREGADO);
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
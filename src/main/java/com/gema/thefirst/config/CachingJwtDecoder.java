@@ -0,0 +1,90 @@
+package com.gema.thefirst.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Guarda os JWT já validados (assinatura e datas), pelo SHA-256 do token, para
+// que o mesmo token reusado a cada requisição não passe de novo pelo parse e
+// pela verificação da assinatura. Cada entrada sai do cache no exp do token,
+// então um token vencido nunca é aceito pelo cache; token sem exp fica no
+// máximo maxAge. Tokens recusados não entram.
+// Métricas: cache jwts (cache.gets por result=hit/miss) e jwt.verification
+// (tempo da validação completa, só nas faltas).
+public class CachingJwtDecoder implements JwtDecoder {
+
+  private final JwtDecoder delegate;
+  private final Cache<String, Jwt> verified;
+  private final Timer verification;
+
+  public CachingJwtDecoder(JwtDecoder delegate, long maxSize, Duration maxAge, MeterRegistry meterRegistry) {
+    this(delegate, maxSize, maxAge, meterRegistry, Ticker.systemTicker());
+  }
+
+  // o Ticker é para os testes avançarem o relógio do cache
+  CachingJwtDecoder(JwtDecoder delegate, long maxSize, Duration maxAge, MeterRegistry meterRegistry,
+      Ticker ticker) {
+    this.delegate = delegate;
+    this.verified = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .ticker(ticker)
+        .expireAfter(new Expiry<String, Jwt>() {
+          @Override
+          public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null) {
+              return maxAge.toNanos();
+            }
+            return Math.max(0, Math.min(maxAge.toNanos(), Duration.between(Instant.now(), expiresAt).toNanos()));
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+
+          @Override
+          public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+    this.verification = Timer.builder("jwt.verification").register(meterRegistry);
+    CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwts");
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    // o decoder do Nimbus também recusa token nulo com JwtException
+    if (token == null) {
+      return delegate.decode(token);
+    }
+    return verified.get(digest(token), key -> verification.record(() -> delegate.decode(token)));
+  }
+
+  private static String digest(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
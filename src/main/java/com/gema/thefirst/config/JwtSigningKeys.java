@@ -0,0 +1,196 @@
+package com.gema.thefirst.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+
+// Chaves de assinatura dos JWT, lidas de arquivos PEM (security.jwt.keys, lista
+// separada por vírgula de locais como file:/etc/app/jwt-2026-10.pem). A primeira
+// chave assina os tokens novos; as demais só validam, o que permite a rotação:
+// a chave nova entra na frente e a antiga fica na lista até os tokens assinados
+// com ela expirarem. Todos os nós com os mesmos arquivos aceitam os tokens uns
+// dos outros, e um redeploy não invalida nada.
+// Cada arquivo traz um bloco "PRIVATE KEY" (PKCS#8) e/ou "PUBLIC KEY"; chave EC
+// precisa dos dois, RSA só da privada, e os dois têm de ser do mesmo tipo. Só a
+// pública serve para chave aposentada.
+// RSA assina com RS256; EC P-256 com ES256, mais rápido para gerar e validar.
+// O kid é o thumbprint da chave (RFC 7638), igual em todos os nós.
+// Sem security.jwt.keys, gera uma chave EC P-256 efêmera a cada subida, como
+// antes: serve para desenvolvimento, não para mais de um nó.
+//
+// Gerar uma chave EC:
+//   openssl genpkey -algorithm EC -pkeyopt ec_paramgen_curve:P-256 -out jwt.pem
+//   openssl pkey -in jwt.pem -pubout >> jwt.pem
+public class JwtSigningKeys {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JwtSigningKeys.class);
+  private static final Pattern PEM_BLOCK = Pattern.compile(
+      "-----BEGIN ([A-Z ]+)-----([^-]+)-----END \\1-----");
+
+  private final JWKSet jwkSet;
+  private final JWK activeKey;
+  private final SignatureAlgorithm algorithm;
+
+  private JwtSigningKeys(List<JWK> keys) {
+    this.jwkSet = new JWKSet(keys);
+    this.activeKey = keys.get(0);
+    this.algorithm = SignatureAlgorithm.from(activeKey.getAlgorithm().getName());
+  }
+
+  public static JwtSigningKeys load(String[] locations, ResourceLoader resourceLoader) {
+    if (locations.length == 0) {
+      LOG.warn("security.jwt.keys not set: signing JWTs with an ephemeral key, tokens will not survive a restart");
+      return new JwtSigningKeys(List.of(generateEc()));
+    }
+    List<JWK> keys = new ArrayList<>();
+    for (String location : locations) {
+      Resource resource = resourceLoader.getResource(location.trim());
+      try (InputStream in = resource.getInputStream()) {
+        keys.add(parsePem(new String(in.readAllBytes(), StandardCharsets.US_ASCII)));
+      } catch (IOException | GeneralSecurityException | JOSEException | IllegalArgumentException e) {
+        throw new IllegalStateException("Invalid JWT key at " + location + ": " + e.getMessage(), e);
+      }
+    }
+    if (!keys.get(0).isPrivate()) {
+      throw new IllegalStateException("The first key in security.jwt.keys signs tokens and needs a private key");
+    }
+    JwtSigningKeys result = new JwtSigningKeys(keys);
+    LOG.info("JWT signing key {} ({}), {} key(s) accepted for validation", result.getActiveKeyId(),
+        result.getAlgorithm().getName(), keys.size());
+    return result;
+  }
+
+  public JWKSet getJwkSet() {
+    return jwkSet;
+  }
+
+  public String getActiveKeyId() {
+    return activeKey.getKeyID();
+  }
+
+  public SignatureAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  static JWK parsePem(String pem) throws GeneralSecurityException, JOSEException {
+    PrivateKey privateKey = null;
+    PublicKey publicKey = null;
+    Matcher matcher = PEM_BLOCK.matcher(pem);
+    while (matcher.find()) {
+      byte[] der = Base64.getMimeDecoder().decode(matcher.group(2).trim());
+      switch (matcher.group(1)) {
+        case "PRIVATE KEY" -> privateKey = privateKey(new PKCS8EncodedKeySpec(der));
+        case "PUBLIC KEY" -> publicKey = publicKey(new X509EncodedKeySpec(der));
+        default -> throw new IllegalArgumentException("unsupported PEM block " + matcher.group(1)
+            + "; convert it with openssl pkcs8 -topk8 -nocrypt");
+      }
+    }
+    if (publicKey == null && privateKey instanceof RSAPrivateCrtKey rsa) {
+      publicKey = KeyFactory.getInstance("RSA")
+          .generatePublic(new RSAPublicKeySpec(rsa.getModulus(), rsa.getPublicExponent()));
+    }
+    if (publicKey == null) {
+      throw new IllegalArgumentException("no PUBLIC KEY block (required for EC keys)");
+    }
+    if (privateKey != null && !privateKey.getAlgorithm().equals(publicKey.getAlgorithm())) {
+      throw new IllegalArgumentException("PRIVATE KEY is " + privateKey.getAlgorithm() + " but PUBLIC KEY is "
+          + publicKey.getAlgorithm());
+    }
+    if (publicKey instanceof RSAPublicKey rsa) {
+      return new RSAKey.Builder(rsa)
+          .privateKey((RSAPrivateKey) privateKey)
+          .keyUse(KeyUse.SIGNATURE)
+          .algorithm(JWSAlgorithm.RS256)
+          .keyIDFromThumbprint()
+          .build();
+    }
+    ECPublicKey ec = (ECPublicKey) publicKey;
+    Curve curve = Curve.forECParameterSpec(ec.getParams());
+    return new ECKey.Builder(curve, ec)
+        .privateKey((ECPrivateKey) privateKey)
+        .keyUse(KeyUse.SIGNATURE)
+        .algorithm(algorithmFor(curve))
+        .keyIDFromThumbprint()
+        .build();
+  }
+
+  private static JWSAlgorithm algorithmFor(Curve curve) {
+    if (Curve.P_256.equals(curve)) {
+      return JWSAlgorithm.ES256;
+    }
+    if (Curve.P_384.equals(curve)) {
+      return JWSAlgorithm.ES384;
+    }
+    if (Curve.P_521.equals(curve)) {
+      return JWSAlgorithm.ES512;
+    }
+    throw new IllegalArgumentException("unsupported EC curve " + curve);
+  }
+
+  private static PrivateKey privateKey(PKCS8EncodedKeySpec spec) throws GeneralSecurityException {
+    try {
+      return KeyFactory.getInstance("RSA").generatePrivate(spec);
+    } catch (GeneralSecurityException e) {
+      return KeyFactory.getInstance("EC").generatePrivate(spec);
+    }
+  }
+
+  private static PublicKey publicKey(X509EncodedKeySpec spec) throws GeneralSecurityException {
+    try {
+      return KeyFactory.getInstance("RSA").generatePublic(spec);
+    } catch (GeneralSecurityException e) {
+      return KeyFactory.getInstance("EC").generatePublic(spec);
+    }
+  }
+
+  private static JWK generateEc() {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+      generator.initialize(new ECGenParameterSpec("secp256r1"));
+      KeyPair keyPair = generator.generateKeyPair();
+      return new ECKey.Builder(Curve.P_256, (ECPublicKey) keyPair.getPublic())
+          .privateKey((ECPrivateKey) keyPair.getPrivate())
+          .keyUse(KeyUse.SIGNATURE)
+          .algorithm(JWSAlgorithm.ES256)
+          .keyIDFromThumbprint()
+          .build();
+    } catch (GeneralSecurityException | JOSEException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
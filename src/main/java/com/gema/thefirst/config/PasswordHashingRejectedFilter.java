@@ -0,0 +1,57 @@
+package com.gema.thefirst.config;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.gema.thefirst.services.exceptions.PasswordHashingRejectedException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// A recusa do BoundedPasswordEncoder acontece dentro dos filtros do Spring
+// Security (autenticação do cliente e grant password), fora do alcance do
+// ControllerExceptionHandler; sem este filtro, na frente de todos, ela viraria
+// 500. Responde 503 com Retry-After, no formato de erro do OAuth2 que os
+// clientes do /oauth2/token já leem.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PasswordHashingRejectedFilter extends OncePerRequestFilter {
+
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    try {
+      chain.doFilter(request, response);
+    } catch (PasswordHashingRejectedException e) {
+      reject(response, e);
+    } catch (ServletException e) {
+      if (!(e.getCause() instanceof PasswordHashingRejectedException rejected)) {
+        throw e;
+      }
+      reject(response, rejected);
+    }
+  }
+
+  private void reject(HttpServletResponse response, PasswordHashingRejectedException e) throws IOException {
+    if (response.isCommitted()) {
+      throw e;
+    }
+    response.resetBuffer();
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setCharacterEncoding("UTF-8");
+    response.getWriter().write("{\"error\":\"temporarily_unavailable\",\"error_description\":\"" + e.getMessage() + "\"}");
+  }
+}
@@ -3,6 +3,8 @@ package com.gema.thefirst.config;
 import java.util.Arrays;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 // import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -56,7 +58,9 @@ public class ResourceServerConfig {
   // Configura a segurança para o servidor de recursos.
   // Desabilita CSRF para simplificar a configuração (embora em um ambiente de
   // produção isso não seja recomendado).
-  // Permite todas as requisições sem autenticação (anyRequest().permitAll()).
+  // Permite todas as requisições sem autenticação (anyRequest().permitAll()),
+  // exceto os endpoints do actuator (métricas), restritos a admins; o health
+  // continua aberto.
   // Habilita o servidor de recursos OAuth2 com suporte a JWT.
   // Configura o CORS usando uma fonte de configuração definida em
   // corsConfigurationSource().
@@ -65,7 +69,10 @@ public class ResourceServerConfig {
   public SecurityFilterChain rsSecurityFilterChain(HttpSecurity http) throws Exception {
 
     http.csrf(csrf -> csrf.disable());
-    http.authorizeHttpRequests((authorize) -> authorize.anyRequest().permitAll());
+    http.authorizeHttpRequests((authorize) -> authorize
+        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+        .anyRequest().permitAll());
     http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
     http.cors(cors -> cors.configurationSource(corsConfigurationSource()));
     return http.build();
@@ -74,7 +81,8 @@ public class ResourceServerConfig {
   // Cria um conversor de autenticação JWT.
   // Define um conversor de autoridades que extrai as autoridades do token JWT. A
   // propriedade authorities é usada como o nome do claim para as autoridades e
-  // não utiliza um prefixo.@Bean
+  // não utiliza um prefixo.
+  @Bean
   public JwtAuthenticationConverter jwtAuthenticationConverter() {
     JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
     grantedAuthoritiesConverter.setAuthoritiesClaimName("authorities");
@@ -0,0 +1,88 @@
+package com.gema.thefirst.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Lembra por pouco tempo os segredos de cliente já conferidos, para que cada
+// chamada ao /oauth2/token não pague um BCrypt só para autenticar o cliente.
+// A chave do cache é um HMAC-SHA256 do hash guardado mais o segredo
+// apresentado, com uma chave aleatória gerada a cada subida: nem o segredo nem
+// um hash rápido dele ficam na memória, e trocar o segredo do cliente (hash
+// novo) já muda a chave. Só acertos são guardados; um segredo errado sempre
+// passa pelo BCrypt. Uso exclusivo para segredos de cliente: senha de usuário
+// continua com o BCrypt inteiro a cada login.
+public class VerifiedSecretCachingEncoder implements PasswordEncoder {
+
+  private static final String HMAC = "HmacSHA256";
+
+  private final PasswordEncoder delegate;
+  private final SecretKeySpec key;
+  private final Cache<String, Boolean> verified;
+
+  public VerifiedSecretCachingEncoder(PasswordEncoder delegate, Duration ttl, long maxSize,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    byte[] secret = new byte[32];
+    new SecureRandom().nextBytes(secret);
+    this.key = new SecretKeySpec(secret, HMAC);
+    this.verified = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, verified, "client_secrets");
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return delegate.encode(rawPassword);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    if (rawPassword == null || encodedPassword == null) {
+      return delegate.matches(rawPassword, encodedPassword);
+    }
+    String cacheKey = mac(encodedPassword, rawPassword);
+    if (verified.getIfPresent(cacheKey) != null) {
+      return true;
+    }
+    boolean matches = delegate.matches(rawPassword, encodedPassword);
+    if (matches) {
+      verified.put(cacheKey, Boolean.TRUE);
+    }
+    return matches;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  private String mac(String encodedPassword, CharSequence rawPassword) {
+    try {
+      // Mac não é thread-safe; criar um por chamada custa microssegundos
+      Mac mac = Mac.getInstance(HMAC);
+      mac.init(key);
+      mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+      mac.update((byte) 0);
+      return Base64.getEncoder().encodeToString(mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.gema.thefirst.config.authorization;
+
+import java.time.Duration;
+
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Autorizações em memória, como o InMemoryOAuth2AuthorizationService, mas com
+// limite de tamanho e expiração: cada autorização sai do cache junto com o seu
+// access token (security.jwt.duration), em vez de ficar no heap para sempre.
+// Um segundo cache liga o valor de cada token ao id da autorização, para o
+// findByToken não varrer tudo; ele não é limpo na remoção, então a autorização
+// achada é sempre conferida contra o token pedido.
+// Só conhece access e refresh token, os únicos que o grant password emite.
+public class CaffeineOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+  private final Cache<String, OAuth2Authorization> authorizations;
+  private final Cache<String, String> idsByToken;
+
+  public CaffeineOAuth2AuthorizationService(Duration ttl, long maxSize, MeterRegistry meterRegistry) {
+    authorizations = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    // access e refresh token de cada autorização
+    idsByToken = Caffeine.newBuilder()
+        .maximumSize(2 * maxSize)
+        .expireAfterWrite(ttl)
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, authorizations, "oauth2_authorizations");
+  }
+
+  @Override
+  public void save(OAuth2Authorization authorization) {
+    Assert.notNull(authorization, "authorization cannot be null");
+    authorizations.put(authorization.getId(), authorization);
+    if (authorization.getAccessToken() != null) {
+      idsByToken.put(authorization.getAccessToken().getToken().getTokenValue(), authorization.getId());
+    }
+    if (authorization.getRefreshToken() != null) {
+      idsByToken.put(authorization.getRefreshToken().getToken().getTokenValue(), authorization.getId());
+    }
+  }
+
+  @Override
+  public void remove(OAuth2Authorization authorization) {
+    Assert.notNull(authorization, "authorization cannot be null");
+    authorizations.invalidate(authorization.getId());
+  }
+
+  @Override
+  public OAuth2Authorization findById(String id) {
+    Assert.hasText(id, "id cannot be empty");
+    return authorizations.getIfPresent(id);
+  }
+
+  @Override
+  public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+    Assert.hasText(token, "token cannot be empty");
+    String id = idsByToken.getIfPresent(token);
+    OAuth2Authorization authorization = id == null ? null : authorizations.getIfPresent(id);
+    if (authorization == null) {
+      return null;
+    }
+    OAuth2Authorization.Token<?> found;
+    if (tokenType == null) {
+      found = authorization.getToken(token);
+    } else if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+      found = authorization.getAccessToken();
+    } else if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+      found = authorization.getRefreshToken();
+    } else {
+      return null;
+    }
+    return found != null && found.getToken().getTokenValue().equals(token) ? authorization : null;
+  }
+}
@@ -0,0 +1,67 @@
+package com.gema.thefirst.config.authorization;
+
+import java.security.Principal;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Autorizações na tabela oauth2_authorization (ver oauth2-authorization.sql),
+// compartilhadas entre os nós. O JdbcOAuth2AuthorizationService não apaga
+// nada sozinho, então as linhas com os tokens já vencidos são removidas de
+// tempos em tempos (security.authorization-store.cleanup-interval).
+// O atributo Principal não vai para o banco: é o OAuth2ClientAuthenticationToken
+// do grant password, que o Jackson do JdbcOAuth2AuthorizationService grava mas
+// não aceita ler de volta (fora da allowlist), e nada depois da emissão o usa.
+// Pelo mesmo motivo o claim user_id (Long) guardado com o access token precisa
+// do LongMixin: um mixin registrado é o que põe a classe na allowlist.
+public class ExpiringJdbcOAuth2AuthorizationService extends JdbcOAuth2AuthorizationService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ExpiringJdbcOAuth2AuthorizationService.class);
+  private static final String DELETE_EXPIRED = "DELETE FROM oauth2_authorization WHERE access_token_expires_at < ?"
+      + " AND (refresh_token_expires_at IS NULL OR refresh_token_expires_at < ?)";
+
+  private final JdbcOperations jdbcOperations;
+
+  public ExpiringJdbcOAuth2AuthorizationService(JdbcOperations jdbcOperations,
+      RegisteredClientRepository registeredClientRepository) {
+    super(jdbcOperations, registeredClientRepository);
+    this.jdbcOperations = jdbcOperations;
+    // o mesmo ObjectMapper do OAuth2AuthorizationRowMapper padrão, mais o LongMixin
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.registerModules(SecurityJackson2Modules.getModules(getClass().getClassLoader()));
+    objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+    objectMapper.addMixIn(Long.class, LongMixin.class);
+    OAuth2AuthorizationRowMapper rowMapper = new OAuth2AuthorizationRowMapper(registeredClientRepository);
+    rowMapper.setObjectMapper(objectMapper);
+    setAuthorizationRowMapper(rowMapper);
+  }
+
+  @Override
+  public void save(OAuth2Authorization authorization) {
+    super.save(OAuth2Authorization.from(authorization)
+        .attributes(attributes -> attributes.remove(Principal.class.getName()))
+        .build());
+  }
+
+  @Scheduled(fixedDelayString = "${security.authorization-store.cleanup-interval}",
+      initialDelayString = "${security.authorization-store.cleanup-interval}")
+  public void deleteExpired() {
+    Timestamp now = Timestamp.from(Instant.now());
+    int deleted = jdbcOperations.update(DELETE_EXPIRED, now, now);
+    LOG.info("Deleted {} expired OAuth2 authorizations", deleted);
+  }
+
+  private abstract static class LongMixin {
+  }
+}
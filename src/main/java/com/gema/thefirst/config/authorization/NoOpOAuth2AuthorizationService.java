@@ -0,0 +1,30 @@
+package com.gema.thefirst.config.authorization;
+
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+// Não guarda nada. Os tokens são JWT auto-contidos, validados só pela
+// assinatura, então emitir e usar tokens não depende do registro. O que
+// depende dele deixa de funcionar: /oauth2/introspect responde inativo e
+// /oauth2/revoke não revoga (um JWT vale até expirar de qualquer forma).
+public class NoOpOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+  @Override
+  public void save(OAuth2Authorization authorization) {
+  }
+
+  @Override
+  public void remove(OAuth2Authorization authorization) {
+  }
+
+  @Override
+  public OAuth2Authorization findById(String id) {
+    return null;
+  }
+
+  @Override
+  public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+    return null;
+  }
+}
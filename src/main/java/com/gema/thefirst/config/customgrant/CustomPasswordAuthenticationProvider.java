@@ -1,7 +1,6 @@
 package com.gema.thefirst.config.customgrant;
 
 import java.security.Principal;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -32,6 +31,8 @@ import org.springframework.security.oauth2.server.authorization.token.OAuth2Toke
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.util.Assert;
 
+import com.gema.thefirst.entities.User;
+
 public class CustomPasswordAuthenticationProvider implements AuthenticationProvider {
 
   private static final String ERROR_URI = "https://datatracker.ietf.org/doc/html/rfc6749#section-5.2";
@@ -39,9 +40,6 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
   private final UserDetailsService userDetailsService;
   private final OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator;
   private final PasswordEncoder passwordEncoder;
-  private String username = "";
-  private String password = "";
-  private Set<String> authorizedScopes = new HashSet<>();
 
   public CustomPasswordAuthenticationProvider(OAuth2AuthorizationService authorizationService,
       OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator,
@@ -64,8 +62,10 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
     OAuth2ClientAuthenticationToken clientPrincipal = getAuthenticatedClientElseThrowInvalidClient(
         customPasswordAuthenticationToken);
     RegisteredClient registeredClient = clientPrincipal.getRegisteredClient();
-    username = customPasswordAuthenticationToken.getUsername();
-    password = customPasswordAuthenticationToken.getPassword();
+    // o provider é um só para todas as requisições: o estado de cada login fica
+    // em variáveis locais, nunca em campos
+    String username = customPasswordAuthenticationToken.getUsername();
+    String password = customPasswordAuthenticationToken.getPassword();
 
     UserDetails user = null;
     try {
@@ -78,7 +78,7 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
       throw new OAuth2AuthenticationException("Invalid credentials");
     }
 
-    authorizedScopes = user.getAuthorities().stream()
+    Set<String> authorizedScopes = user.getAuthorities().stream()
         .map(scope -> scope.getAuthority())
         .filter(scope -> registeredClient.getScopes().contains(scope))
         .collect(Collectors.toSet());
@@ -86,7 +86,9 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
     // -----------Create a new Security Context Holder Context----------
     OAuth2ClientAuthenticationToken oAuth2ClientAuthenticationToken = (OAuth2ClientAuthenticationToken) SecurityContextHolder
         .getContext().getAuthentication();
-    CustomUserAuthorities customPasswordUser = new CustomUserAuthorities(username, user.getAuthorities());
+    // o id vai para o claim user_id, o que poupa o serviço de buscar o usuário a cada requisição
+    Long userId = user instanceof User entity ? entity.getId() : null;
+    CustomUserAuthorities customPasswordUser = new CustomUserAuthorities(userId, username, user.getAuthorities());
     oAuth2ClientAuthenticationToken.setDetails(customPasswordUser);
 
     var newcontext = SecurityContextHolder.createEmptyContext();
@@ -6,5 +6,21 @@ public class Constants {
   public static final String EMAIL_NOT_FOUND = "Email not found";
   public static final String ACCESS_DENIED_SENTENCE = "Access Denied. Should be self or admin";
   public static final String FALHA_INTEGRIDADE_REFERENCIAL = "Falha na integridade referencial";
+  public static final String PRODUTO_NAO_ENCONTRADO = "Produto não encontrado: ";
+  public static final String PRODUTO_OBRIGATORIO = "Todo item precisa de productId";
+  public static final String CURSOR_INVALIDO = "Cursor inválido";
+  public static final String CURSOR_OUTRA_CONSULTA = "Cursor gerado para outro filtro de nome";
+  public static final String ORDENACAO_INVALIDA = "Ordenação inválida. Use name ou price, com asc ou desc";
+  public static final String CATEGORY_MATCH_INVALIDO = "categoryMatch inválido. Use any ou all";
+  public static final String FACETS_INVALIDAS = "facets inválido. Use category e/ou price";
+  public static final String FACET_CATEGORY = "category";
+  public static final String FACET_PRICE = "price";
+  public static final String FORMATO_INVALIDO = "Formato inválido. Use ndjson ou csv";
+  public static final String TOTAL_INVALIDO = "total inválido. Use exact, estimated ou none";
+  public static final String FACETS_SEM_TOTAL = "facets não pode ser usado com total=none";
+  public static final String IDS_EXCEDIDOS = "No máximo 100 IDs por consulta";
+  public static final String SUGESTOES_EXCEDIDAS = "size acima do máximo de sugestões: ";
+  public static final String IDS_VAZIOS = "ids não pode ter itens vazios";
+  public static final String LOGIN_SOBRECARREGADO = "Muitos logins ao mesmo tempo, tente novamente em instantes";
 
 }
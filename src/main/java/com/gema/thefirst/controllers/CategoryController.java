@@ -1,25 +1,68 @@
 package com.gema.thefirst.controllers;
 
-import com.gema.thefirst.dto.CategoryDTO;
-import com.gema.thefirst.services.CategoryService;
+import com.gema.thefirst.services.cache.CategoryResponseCache;
+import com.gema.thefirst.util.AcceptEncodingUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.Arrays;
 
 @RestController
 @RequestMapping(value = "/categories")
 public class CategoryController {
 
   @Autowired
-  private CategoryService categoryService;
+  private CategoryResponseCache categoryResponseCache;
 
+  @Value("${cache.categories.max-age}")
+  private Duration maxAge;
+
+  // Servido dos bytes em cache (JSON ou gzip, conforme o Accept-Encoding), com
+  // ETag forte; If-None-Match igual ao ETag atual responde 304 sem corpo.
   @GetMapping
-  public ResponseEntity<List<CategoryDTO>> findAll() {
-    List<CategoryDTO> list = categoryService.findAll();
-    return ResponseEntity.ok(list);
+  public ResponseEntity<byte[]> findAll(
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding) {
+    CategoryResponseCache.Snapshot snapshot = categoryResponseCache.get();
+    boolean gzip = AcceptEncodingUtil.acceptsGzip(acceptEncoding);
+    String etag = gzip ? snapshot.getGzipEtag() : snapshot.getEtag();
+
+    CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+    if (matches(ifNoneMatch, etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .cacheControl(cacheControl)
+          .varyBy(HttpHeaders.ACCEPT_ENCODING)
+          .build();
+    }
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .eTag(etag)
+        .cacheControl(cacheControl)
+        .varyBy(HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+      return response.body(snapshot.getGzip());
+    }
+    return response.body(snapshot.getJson());
+  }
+
+  private static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        .anyMatch(x -> x.equals("*") || x.equals(etag));
   }
 }
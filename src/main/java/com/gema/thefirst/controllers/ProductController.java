@@ -1,40 +1,207 @@
 package com.gema.thefirst.controllers;
 
+import com.gema.thefirst.dto.CursorPageDTO;
 import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.dto.ProductImportDTO;
+import com.gema.thefirst.dto.ProductLookupDTO;
 import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.dto.ProductSuggestionDTO;
+import com.gema.thefirst.services.ProductExportService;
+import com.gema.thefirst.services.ProductFileFormat;
+import com.gema.thefirst.services.ProductImportService;
+import com.gema.thefirst.services.PageTotalMode;
 import com.gema.thefirst.services.ProductService;
+import com.gema.thefirst.services.cache.ProductCatalogClock;
+import com.gema.thefirst.services.exceptions.BadRequestException;
+import com.gema.thefirst.util.AcceptEncodingUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static com.gema.thefirst.constants.Constants.CATEGORY_MATCH_INVALIDO;
+import static com.gema.thefirst.constants.Constants.FACETS_INVALIDAS;
+import static com.gema.thefirst.constants.Constants.FACETS_SEM_TOTAL;
+import static com.gema.thefirst.constants.Constants.FACET_CATEGORY;
+import static com.gema.thefirst.constants.Constants.FACET_PRICE;
+import static com.gema.thefirst.constants.Constants.IDS_EXCEDIDOS;
+import static com.gema.thefirst.constants.Constants.IDS_VAZIOS;
 
 @RestController
 @RequestMapping(value = "/products")
 public class ProductController {
 
+  private static final int MAX_IDS = 100;
+
   @Autowired
   private ProductService productService;
 
+  @Autowired
+  private ProductImportService productImportService;
+
+  @Autowired
+  private ProductExportService productExportService;
+
+  @Autowired
+  private ProductCatalogClock productCatalogClock;
+
+  // ETag fraco W/"<id>-<versão>". Com If-None-Match, a revalidação só consulta
+  // a versão (cache ou coluna version) e responde 304 sem montar o produto.
   @GetMapping(value = "/{id}")
-  public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
+  public ResponseEntity<ProductDTO> findById(@PathVariable Long id,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    if (ifNoneMatch != null) {
+      String etag = etag(id, productService.findVersion(id));
+      if (matches(ifNoneMatch, etag)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .build();
+      }
+    }
     ProductDTO dto = productService.findById(id);
-    return ResponseEntity.ok(dto);
+    return ResponseEntity.ok()
+        .eTag(etag(id, dto.getVersion()))
+        .cacheControl(CacheControl.noCache())
+        .body(dto);
   }
 
+  // Last-Modified é o instante da última gravação de produto ou categoria;
+  // If-Modified-Since igual ou posterior responde 304 sem executar a busca.
   @GetMapping
-  public ResponseEntity<Page<ProductMinDTO>> findAll(
+  public ResponseEntity<Slice<ProductMinDTO>> findAll(
       @RequestParam(name = "name", defaultValue = "") String name,
+      @RequestParam(name = "categoryId", defaultValue = "") List<Long> categoryIds,
+      @RequestParam(name = "categoryMatch", defaultValue = "any") String categoryMatch,
+      @RequestParam(name = "facets", defaultValue = "") Set<String> facets,
+      @RequestParam(name = "total", defaultValue = "exact") String total,
+      @RequestHeader HttpHeaders headers,
       Pageable pageable) {
-    Page<ProductMinDTO> dto = productService.findAll(name, pageable);
+    boolean matchAll = switch (categoryMatch) {
+      case "any" -> false;
+      case "all" -> true;
+      default -> throw new BadRequestException(CATEGORY_MATCH_INVALIDO);
+    };
+    if (!Set.of(FACET_CATEGORY, FACET_PRICE).containsAll(facets)) {
+      throw new BadRequestException(FACETS_INVALIDAS);
+    }
+    PageTotalMode totalMode = PageTotalMode.fromParameter(total);
+    if (totalMode == PageTotalMode.NONE && !facets.isEmpty()) {
+      throw new BadRequestException(FACETS_SEM_TOTAL);
+    }
+    // null logo depois de uma alteração: resposta sem Last-Modified, sem 304
+    Instant lastModified = productCatalogClock.lastModified();
+    long ifModifiedSince = headers.getIfModifiedSince();
+    if (lastModified != null && ifModifiedSince >= 0 && lastModified.toEpochMilli() <= ifModifiedSince) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .lastModified(lastModified)
+          .cacheControl(CacheControl.noCache())
+          .build();
+    }
+    Slice<ProductMinDTO> dto = productService.findAll(name, categoryIds, matchAll, facets, totalMode, pageable);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+    if (lastModified != null) {
+      response.lastModified(lastModified);
+    }
+    return response.body(dto);
+  }
+
+  // Vários produtos de uma vez (carrinho, lista de desejos): GET /products?ids=1,2,3.
+  // Um item por ID, na ordem pedida, com found = false para os inexistentes.
+  @GetMapping(params = "ids")
+  public ResponseEntity<List<ProductLookupDTO>> findAllById(@RequestParam(name = "ids") List<Long> ids) {
+    if (ids.size() > MAX_IDS) {
+      throw new BadRequestException(IDS_EXCEDIDOS);
+    }
+    // "ids=1,,2" chega com null no lugar do item vazio
+    if (ids.contains(null)) {
+      throw new BadRequestException(IDS_VAZIOS);
+    }
+    List<ProductLookupDTO> dto = productService.findAllById(ids);
     return ResponseEntity.ok(dto);
   }
 
+  // Autocomplete da caixa de busca: nomes que começam com o prefixo (ou têm
+  // uma palavra que começa com ele), dos mais vendidos para os menos vendidos.
+  // O size vai até suggest.top-k; acima disso, 400.
+  @GetMapping(value = "/suggest")
+  public ResponseEntity<List<ProductSuggestionDTO>> suggest(
+      @RequestParam(name = "prefix") String prefix,
+      @RequestParam(name = "size", defaultValue = "10") @Min(1) int size) {
+    List<ProductSuggestionDTO> dto = productService.suggest(prefix, size);
+    return ResponseEntity.ok(dto);
+  }
+
+  // Listagem por cursor (keyset) para paginação profunda e scroll infinito.
+  // Use o nextCursor da resposta para pedir a próxima página.
+  @GetMapping(value = "/scroll")
+  public ResponseEntity<CursorPageDTO<ProductMinDTO>> scroll(
+      @RequestParam(name = "name", defaultValue = "") String name,
+      @RequestParam(name = "sort", defaultValue = "name") String sort,
+      @RequestParam(name = "size", defaultValue = "20") @Min(1) @Max(100) int size,
+      @RequestParam(name = "cursor", required = false) String cursor) {
+    CursorPageDTO<ProductMinDTO> dto = productService.scroll(name, sort, size, cursor);
+    return ResponseEntity.ok(dto);
+  }
+
+  // Exportação do catálogo inteiro em streaming (NDJSON ou CSV). Com since, só
+  // os produtos alterados depois dele; o cabeçalho X-Export-Watermark traz o
+  // valor a usar como since na próxima exportação. Exclusões não aparecem na
+  // exportação incremental: só a completa reflete produtos removidos.
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
+  @GetMapping(value = "/export")
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(name = "format", defaultValue = "ndjson") String format,
+      @RequestParam(name = "since", required = false) Instant since,
+      @RequestParam(name = "gzip", required = false) Boolean gzip,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding) {
+    ProductFileFormat fileFormat = ProductFileFormat.fromParameter(format);
+    boolean compress = gzip != null ? gzip : AcceptEncodingUtil.acceptsGzip(acceptEncoding);
+    Instant watermark = productExportService.watermark();
+
+    StreamingResponseBody body = out -> {
+      if (compress) {
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+          productExportService.export(gzipOut, fileFormat, since);
+        }
+      } else {
+        productExportService.export(out, fileFormat, since);
+      }
+    };
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(fileFormat.getContentType()))
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + fileFormat.getExtension() + "\"")
+        .varyBy(HttpHeaders.ACCEPT_ENCODING);
+    if (compress) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    if (watermark != null) {
+      response.header("X-Export-Watermark", watermark.toString());
+    }
+    return response.body(body);
+  }
+
   @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
   @PostMapping
   public ResponseEntity<ProductDTO> insert(@Valid @RequestBody ProductDTO productDTO) {
@@ -44,6 +211,33 @@ public class ProductController {
     return ResponseEntity.created(uri).body(productDTO);
   }
 
+  // Importação em massa: o corpo (NDJSON ou CSV) é lido em streaming e gravado
+  // em lotes. A resposta traz o resumo e os erros por linha.
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @PostMapping(value = "/import", consumes = { "application/x-ndjson", "text/csv" })
+  public ResponseEntity<ProductImportDTO> importProducts(HttpServletRequest request) throws IOException {
+    ProductFileFormat format = MediaType.parseMediaType(request.getContentType())
+        .isCompatibleWith(MediaType.parseMediaType(ProductFileFormat.CSV.getContentType()))
+            ? ProductFileFormat.CSV
+            : ProductFileFormat.NDJSON;
+    ProductImportDTO dto = productImportService.importProducts(request.getInputStream(), format);
+    return ResponseEntity.ok(dto);
+  }
+
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @GetMapping(value = "/import")
+  public ResponseEntity<List<ProductImportDTO>> findImports() {
+    List<ProductImportDTO> dto = productImportService.findAll();
+    return ResponseEntity.ok(dto);
+  }
+
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+  @GetMapping(value = "/import/{id}")
+  public ResponseEntity<ProductImportDTO> findImportById(@PathVariable String id) {
+    ProductImportDTO dto = productImportService.findById(id);
+    return ResponseEntity.ok(dto);
+  }
+
   @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
   @PutMapping(value = "/{id}")
   public ResponseEntity<ProductDTO> update(@PathVariable Long id, @Valid @RequestBody ProductDTO productDTO) {
@@ -57,4 +251,16 @@ public class ProductController {
     productService.delete(id);
     return ResponseEntity.noContent().build();
   }
+
+  private static String etag(Long id, Integer version) {
+    return "W/\"" + id + "-" + version + "\"";
+  }
+
+  // comparação fraca (RFC 9110): o prefixo W/ não conta
+  private static boolean matches(String ifNoneMatch, String etag) {
+    String opaque = etag.substring(2);
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        .anyMatch(x -> x.equals("*") || (x.startsWith("W/") ? x.substring(2) : x).equals(opaque));
+  }
 }
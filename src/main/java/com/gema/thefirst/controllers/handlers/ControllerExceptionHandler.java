@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.gema.thefirst.dto.CustomError;
 import com.gema.thefirst.dto.ValidationError;
+import com.gema.thefirst.services.exceptions.BadRequestException;
 import com.gema.thefirst.services.exceptions.DatabaseException;
 import com.gema.thefirst.services.exceptions.ForbiddenException;
 import com.gema.thefirst.services.exceptions.ResourceNotFoundException;
@@ -33,6 +34,13 @@ public class ControllerExceptionHandler {
     return ResponseEntity.status(status).body(err);
   }
 
+  @ExceptionHandler(BadRequestException.class)
+  public ResponseEntity<CustomError> badRequest(BadRequestException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.BAD_REQUEST;
+    CustomError err = new CustomError(Instant.now(), status.value(), e.getMessage(), request.getRequestURI());
+    return ResponseEntity.status(status).body(err);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<CustomError> methodArgumentNotValidation(MethodArgumentNotValidException e,
       HttpServletRequest request) {
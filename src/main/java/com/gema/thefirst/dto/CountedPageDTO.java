@@ -0,0 +1,28 @@
+package com.gema.thefirst.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+// página com o campo totalExact: false quando totalElements veio do count em
+// cache e pode não refletir as últimas gravações
+public class CountedPageDTO<T> extends PageImpl<T> {
+
+  private boolean totalExact;
+
+  public CountedPageDTO(List<T> content, Pageable pageable, long total, boolean totalExact) {
+    super(content, pageable, total);
+    this.totalExact = totalExact;
+  }
+
+  public CountedPageDTO(Page<T> page) {
+    this(page.getContent(), page.getPageable(), page.getTotalElements(),
+        !(page instanceof CountedPageDTO<T> counted) || counted.isTotalExact());
+  }
+
+  public boolean isTotalExact() {
+    return totalExact;
+  }
+}
@@ -0,0 +1,28 @@
+package com.gema.thefirst.dto;
+
+import java.util.List;
+
+public class CursorPageDTO<T> {
+
+  private List<T> content;
+  private String nextCursor;
+  private boolean last;
+
+  public CursorPageDTO(List<T> content, String nextCursor) {
+    this.content = content;
+    this.nextCursor = nextCursor;
+    this.last = nextCursor == null;
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean isLast() {
+    return last;
+  }
+}
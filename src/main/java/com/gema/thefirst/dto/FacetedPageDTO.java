@@ -0,0 +1,18 @@
+package com.gema.thefirst.dto;
+
+import org.springframework.data.domain.Page;
+
+// mesma página de sempre, com o campo facets a mais
+public class FacetedPageDTO<T> extends CountedPageDTO<T> {
+
+  private ProductFacetsDTO facets;
+
+  public FacetedPageDTO(Page<T> page, ProductFacetsDTO facets) {
+    super(page);
+    this.facets = facets;
+  }
+
+  public ProductFacetsDTO getFacets() {
+    return facets;
+  }
+}
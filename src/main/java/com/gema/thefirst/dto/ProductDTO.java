@@ -25,6 +25,7 @@ public class ProductDTO {
   @Positive(message = "O preço deve ser positivo")
   private Double price;
   private String imgUrl;
+  private Integer version;
 
   @NotEmpty(message = "Deve ter pelo menos uma categoria")
   private List<CategoryDTO> categories = new ArrayList<>();
@@ -46,6 +47,7 @@ public class ProductDTO {
     description = entity.getDescription();
     price = entity.getPrice();
     imgUrl = entity.getImgUrl();
+    version = entity.getVersion();
     categories = entity.getCategories().stream().map(x -> new CategoryDTO(x)).collect(Collectors.toList());
   }
 
@@ -69,6 +71,10 @@ public class ProductDTO {
     return imgUrl;
   }
 
+  public Integer getVersion() {
+    return version;
+  }
+
   public List<CategoryDTO> getCategories() {
     return categories;
   }
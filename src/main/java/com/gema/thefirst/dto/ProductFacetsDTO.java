@@ -0,0 +1,23 @@
+package com.gema.thefirst.dto;
+
+import java.util.List;
+
+// campos nulos quando a faceta não foi pedida
+public class ProductFacetsDTO {
+
+  private List<CategoryFacetDTO> categories;
+  private List<PriceFacetDTO> prices;
+
+  public ProductFacetsDTO(List<CategoryFacetDTO> categories, List<PriceFacetDTO> prices) {
+    this.categories = categories;
+    this.prices = prices;
+  }
+
+  public List<CategoryFacetDTO> getCategories() {
+    return categories;
+  }
+
+  public List<PriceFacetDTO> getPrices() {
+    return prices;
+  }
+}
@@ -0,0 +1,73 @@
+package com.gema.thefirst.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.gema.thefirst.services.ProductImportJob;
+
+public class ProductImportDTO {
+
+  private String id;
+  private ProductImportJob.Status status;
+  private String message;
+  private Instant startedAt;
+  private Instant finishedAt;
+  private long processed;
+  private long imported;
+  private long failed;
+  private double rowsPerSecond;
+  private List<RowErrorDTO> errors;
+
+  public ProductImportDTO(ProductImportJob job) {
+    id = job.getId();
+    status = job.getStatus();
+    message = job.getMessage();
+    startedAt = job.getStartedAt();
+    finishedAt = job.getFinishedAt();
+    processed = job.getProcessed();
+    imported = job.getImported();
+    failed = job.getFailed();
+    rowsPerSecond = job.getRowsPerSecond();
+    errors = job.getErrors();
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public ProductImportJob.Status getStatus() {
+    return status;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public long getProcessed() {
+    return processed;
+  }
+
+  public long getImported() {
+    return imported;
+  }
+
+  public long getFailed() {
+    return failed;
+  }
+
+  public double getRowsPerSecond() {
+    return rowsPerSecond;
+  }
+
+  public List<RowErrorDTO> getErrors() {
+    return errors;
+  }
+}
@@ -0,0 +1,28 @@
+package com.gema.thefirst.dto;
+
+// um item da busca de vários produtos por ID: found = false e product nulo
+// quando o ID não existe
+public class ProductLookupDTO {
+
+  private Long id;
+  private boolean found;
+  private ProductDTO product;
+
+  public ProductLookupDTO(Long id, ProductDTO product) {
+    this.id = id;
+    this.found = product != null;
+    this.product = product;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public boolean isFound() {
+    return found;
+  }
+
+  public ProductDTO getProduct() {
+    return product;
+  }
+}
@@ -0,0 +1,22 @@
+package com.gema.thefirst.dto;
+
+import java.util.List;
+
+public class RowErrorDTO {
+
+  private long row;
+  private List<FieldMessage> errors;
+
+  public RowErrorDTO(long row, List<FieldMessage> errors) {
+    this.row = row;
+    this.errors = errors;
+  }
+
+  public long getRow() {
+    return row;
+  }
+
+  public List<FieldMessage> getErrors() {
+    return errors;
+  }
+}
@@ -0,0 +1,34 @@
+package com.gema.thefirst.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Linha única com o instante da última alteração do catálogo, lida e gravada
+// pelo ProductCatalogClock via SQL; a entidade existe para o ddl-auto criar a tabela.
+@Entity
+@Table(name = "tb_catalog_version")
+public class CatalogVersion {
+
+  @Id
+  private Long id;
+  private Instant modifiedAt;
+
+  public CatalogVersion() {
+  }
+
+  public CatalogVersion(Long id, Instant modifiedAt) {
+    this.id = id;
+    this.modifiedAt = modifiedAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Instant getModifiedAt() {
+    return modifiedAt;
+  }
+}
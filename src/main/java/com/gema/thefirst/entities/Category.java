@@ -4,19 +4,25 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import com.gema.thefirst.services.cache.CategoryChangeListener;
+
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "tb_category")
+@EntityListeners(CategoryChangeListener.class)
 public class Category {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_category_seq")
+  @SequenceGenerator(name = "tb_category_seq", allocationSize = 50)
   private Long id;
   private String name;
 
@@ -7,16 +7,20 @@ import java.util.Set;
 import java.util.List;
 import java.util.Objects;
 
+import com.gema.thefirst.services.cache.ExistingIdListener;
+
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
+@EntityListeners(ExistingIdListener.class)
 @Table(name = "tb_order")
 @Data
 public class Order {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_order_seq")
+  @SequenceGenerator(name = "tb_order_seq", allocationSize = 50)
   private Long id;
 
   @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
@@ -30,7 +34,7 @@ public class Order {
   @JoinColumn(name = "client_id")
   private User client;
 
-  @OneToMany(mappedBy = "id.order")
+  @OneToMany(mappedBy = "id.order", cascade = CascadeType.PERSIST)
   private Set<OrderItem> items = new HashSet<>();
 
   public Order() {
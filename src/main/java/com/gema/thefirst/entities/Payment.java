@@ -11,8 +11,7 @@ import lombok.Data;
 @Data
 public class Payment {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Id // mesmo valor do id do pedido, via @MapsId
   private Long id;
 
   @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE") // salva sendo UTC
@@ -1,24 +1,40 @@
 package com.gema.thefirst.entities;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.List;
 import java.util.Objects;
 
+import com.gema.thefirst.services.cache.ExistingIdListener;
+
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "tb_product")
+@EntityListeners(ExistingIdListener.class)
+@Table(name = "tb_product", indexes = @Index(name = "idx_product_updated_at", columnList = "updated_at"))
 public class Product {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_product_seq")
+  @SequenceGenerator(name = "tb_product_seq", allocationSize = 50)
   private Long id;
+  // NOT NULL: name e price são chaves do keyset de GET /products/scroll
+  @Column(nullable = false)
   private String name;
   @Column(columnDefinition = "TEXT")
   private String description;
+  @Column(nullable = false)
   private Double price;
   private String imgUrl;
+  // marca d'água da exportação incremental (GET /products/export?since=)
+  @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+  private Instant updatedAt;
+  // controle otimista e base do ETag de GET /products/{id}; o DEFAULT cobre as
+  // linhas que já existiam quando a coluna foi criada
+  @Version
+  @Column(columnDefinition = "INTEGER DEFAULT 0")
+  private Integer version;
 
   @ManyToMany
   @JoinTable(name = "tb_product_category", joinColumns = @JoinColumn(name = "product_id"), // tabela onde esta
@@ -81,6 +97,28 @@ public class Product {
     this.imgUrl = imgUrl;
   }
 
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public Integer getVersion() {
+    return version;
+  }
+
+  public void setVersion(Integer version) {
+    this.version = version;
+  }
+
+  @PrePersist
+  @PreUpdate
+  public void touch() {
+    updatedAt = Instant.now();
+  }
+
   public Set<Category> getCategories() {
     return categories;
   }
@@ -4,18 +4,24 @@ import java.util.Objects;
 
 import org.springframework.security.core.GrantedAuthority;
 
+import com.gema.thefirst.services.cache.UserChangeListener;
+
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "tb_role")
+@EntityListeners(UserChangeListener.class)
 public class Role implements GrantedAuthority {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_role_seq")
+  @SequenceGenerator(name = "tb_role_seq", allocationSize = 50)
   private Long id;
   private String authority;
 
@@ -0,0 +1,11 @@
+package com.gema.thefirst.projections;
+
+public interface ProductMinProjection {
+  Long getId();
+
+  String getName();
+
+  Double getPrice();
+
+  String getImgUrl();
+}
@@ -0,0 +1,7 @@
+package com.gema.thefirst.projections;
+
+public interface ProductNameProjection {
+  Long getId();
+
+  String getName();
+}
@@ -1,6 +1,8 @@
 package com.gema.thefirst.projections;
 
 public interface UserDetailsProjection {
+  Long getId();
+
   String getUsername();
 
   String getPassword();
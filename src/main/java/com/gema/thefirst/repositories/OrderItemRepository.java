@@ -1,8 +1,17 @@
 package com.gema.thefirst.repositories;
 
+import java.util.List;
+
 import com.gema.thefirst.entities.OrderItem;
 import com.gema.thefirst.entities.OrderItemPK;
+import com.gema.thefirst.projections.ProductSalesProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, OrderItemPK> {
+
+  // unidades vendidas por produto
+  @Query("SELECT obj.id.product.id AS productId, SUM(obj.quantity) AS quantity FROM OrderItem obj " +
+      "GROUP BY obj.id.product.id")
+  List<ProductSalesProjection> sumQuantityByProduct();
 }
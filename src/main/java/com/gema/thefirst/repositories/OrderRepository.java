@@ -1,8 +1,32 @@
 package com.gema.thefirst.repositories;
 
 import com.gema.thefirst.entities.Order;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+  // tudo que o OrderDTO usa em uma consulta só: cliente, pagamento, itens e
+  // produtos dos itens
+  @Query("SELECT obj FROM Order obj " +
+      "JOIN FETCH obj.client " +
+      "LEFT JOIN FETCH obj.payment " +
+      "LEFT JOIN FETCH obj.items item " +
+      "LEFT JOIN FETCH item.id.product " +
+      "WHERE obj.id = :id")
+  Optional<Order> findWithItemsById(Long id);
+
+  // usado para montar o filtro de IDs existentes; precisa de transação aberta
+  @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+  @Query("SELECT obj.id FROM Order obj")
+  Stream<Long> streamAllIds();
 }
@@ -1,15 +1,122 @@
 package com.gema.thefirst.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import com.gema.thefirst.dto.ProductMinDTO;
 import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.projections.ProductCategoryProjection;
+import com.gema.thefirst.projections.ProductMinProjection;
+import com.gema.thefirst.projections.ProductNameProjection;
+import com.gema.thefirst.projections.ProductPriceProjection;
+
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-  @Query("SELECT obj FROM Product obj " +
+  // as listagens selecionam só as colunas do ProductMinDTO: sem a descrição
+  // (TEXT) e sem entidades gerenciadas no contexto de persistência
+  @Query(value = "SELECT new com.gema.thefirst.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+      "FROM Product obj " +
+      "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) ",
+      countQuery = "SELECT COUNT(obj) FROM Product obj " +
+      "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) ")
+  Page<ProductMinDTO> searchByName(String name, Pageable pageable);
+
+  // filtro por categorias sem o índice em memória: minMatches = 1 para qualquer
+  // uma das categorias, ou o total de categorias pedidas para todas elas
+  @Query(value = "SELECT new com.gema.thefirst.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+      "FROM Product obj " +
+      "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) " +
+      "AND obj.id IN (SELECT p.id FROM Product p JOIN p.categories c WHERE c.id IN :categoryIds " +
+      "GROUP BY p.id HAVING COUNT(c.id) >= :minMatches)",
+      countQuery = "SELECT COUNT(obj) FROM Product obj " +
+      "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) " +
+      "AND obj.id IN (SELECT p.id FROM Product p JOIN p.categories c WHERE c.id IN :categoryIds " +
+      "GROUP BY p.id HAVING COUNT(c.id) >= :minMatches)")
+  Page<ProductMinDTO> searchByNameAndCategories(String name, Collection<Long> categoryIds, long minMatches,
+      Pageable pageable);
+
+  // as mesmas listagens sem count: buscam uma linha a mais só para saber se há próxima página
+  @Query("SELECT new com.gema.thefirst.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+      "FROM Product obj " +
       "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) ")
-  Page<Product> searchByName(String name, Pageable pageable);
+  Slice<ProductMinDTO> sliceByName(String name, Pageable pageable);
+
+  @Query("SELECT new com.gema.thefirst.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+      "FROM Product obj " +
+      "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) " +
+      "AND obj.id IN (SELECT p.id FROM Product p JOIN p.categories c WHERE c.id IN :categoryIds " +
+      "GROUP BY p.id HAVING COUNT(c.id) >= :minMatches)")
+  Slice<ProductMinDTO> sliceByNameAndCategories(String name, Collection<Long> categoryIds, long minMatches,
+      Pageable pageable);
+
+  // totais das listagens acima, para o cache de counts
+  @Query("SELECT COUNT(obj) FROM Product obj " +
+      "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) ")
+  long countByName(String name);
+
+  @Query("SELECT COUNT(obj) FROM Product obj " +
+      "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) " +
+      "AND obj.id IN (SELECT p.id FROM Product p JOIN p.categories c WHERE c.id IN :categoryIds " +
+      "GROUP BY p.id HAVING COUNT(c.id) >= :minMatches)")
+  long countByNameAndCategories(String name, Collection<Long> categoryIds, long minMatches);
+
+  @EntityGraph(attributePaths = "categories")
+  Optional<Product> findWithCategoriesById(Long id);
+
+  // busca de vários produtos por ID: um IN, com as categorias no mesmo SELECT
+  @EntityGraph(attributePaths = "categories")
+  List<Product> findWithCategoriesByIdIn(Collection<Long> ids);
+
+  // páginas vindas do motor de busca em memória
+  @Query("SELECT new com.gema.thefirst.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) " +
+      "FROM Product obj WHERE obj.id IN :ids")
+  List<ProductMinDTO> findMinByIdIn(Collection<Long> ids);
+
+  // só a versão, para responder 304 sem carregar o produto
+  @Query("SELECT obj.version FROM Product obj WHERE obj.id = :id")
+  Optional<Integer> findVersionById(Long id);
+
+  // listagem por keyset: sem OFFSET e sem count; o id entra na ordenação como desempate
+  // projeção por interface: o Spring Data monta o SELECT só com as colunas dela
+  // (a projeção por classe não funciona com keyset)
+  Window<ProductMinProjection> findByNameContainingIgnoreCase(String name, ScrollPosition position, Sort sort, Limit limit);
+
+  // usado para montar o filtro de IDs existentes; precisa de transação aberta
+  @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+  @Query("SELECT obj.id FROM Product obj")
+  Stream<Long> streamAllIds();
+
+  // usado para montar o índice de busca em memória; precisa de transação aberta
+  @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+  @Query("SELECT obj.id AS id, obj.name AS name FROM Product obj")
+  Stream<ProductNameProjection> streamAllNames();
+
+  // usado para montar a visão colunar das facetas; precisa de transação aberta
+  @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+  @Query("SELECT obj.id AS id, obj.price AS price FROM Product obj")
+  Stream<ProductPriceProjection> streamAllPrices();
+
+  // usado para montar os índices de categorias em memória; precisa de transação aberta
+  @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+  @Query("SELECT obj.id AS productId, c.id AS categoryId FROM Product obj JOIN obj.categories c")
+  Stream<ProductCategoryProjection> streamAllCategories();
 }
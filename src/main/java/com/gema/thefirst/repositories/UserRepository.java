@@ -13,7 +13,7 @@ import com.gema.thefirst.projections.UserDetailsProjection;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
   @Query(nativeQuery = true, value = """
-      SELECT tb_user.email AS username, tb_user.password, tb_role.id AS roleId, tb_role.authority
+      SELECT tb_user.id, tb_user.email AS username, tb_user.password, tb_role.id AS roleId, tb_role.authority
       FROM tb_user
       INNER JOIN tb_user_role ON tb_user.id = tb_user_role.user_id
       INNER JOIN tb_role ON tb_user_role.role_id = tb_role.id
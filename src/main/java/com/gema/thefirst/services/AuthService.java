@@ -3,8 +3,8 @@ package com.gema.thefirst.services;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.gema.thefirst.entities.User;
 import com.gema.thefirst.services.exceptions.ForbiddenException;
+import com.gema.thefirst.util.AuthenticatedUser;
 
 import static com.gema.thefirst.constants.Constants.ACCESS_DENIED_SENTENCE;
 
@@ -15,7 +15,7 @@ public class AuthService {
   private UserService userService;
 
   public void validateSelfOrAdmin(Long userId) {
-    User me = userService.authenticated();
+    AuthenticatedUser me = userService.authenticated();
     if (me.hasRole("ROLE_ADMIN")) {
       return;
     }
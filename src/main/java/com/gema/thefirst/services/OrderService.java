@@ -1,10 +1,17 @@
 package com.gema.thefirst.services;
 
+import static com.gema.thefirst.constants.Constants.PRODUTO_NAO_ENCONTRADO;
+import static com.gema.thefirst.constants.Constants.PRODUTO_OBRIGATORIO;
 import static com.gema.thefirst.constants.Constants.RECURSO_NAO_ENCONTRADO;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.gema.thefirst.dto.OrderDTO;
@@ -13,10 +20,11 @@ import com.gema.thefirst.entities.Order;
 import com.gema.thefirst.entities.OrderItem;
 import com.gema.thefirst.entities.OrderStatus;
 import com.gema.thefirst.entities.Product;
-import com.gema.thefirst.entities.User;
-import com.gema.thefirst.repositories.OrderItemRepository;
 import com.gema.thefirst.repositories.OrderRepository;
 import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.cache.ExistingIdFilter;
+import com.gema.thefirst.services.events.OrderPlacedEvent;
+import com.gema.thefirst.services.exceptions.BadRequestException;
 import com.gema.thefirst.services.exceptions.ResourceNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,18 +37,24 @@ public class OrderService {
   @Autowired
   private ProductRepository productRepository;
 
-  @Autowired
-  private OrderItemRepository orderItemRepository;
-
   @Autowired
   private UserService userService;
 
   @Autowired
   private AuthService authService;
 
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private ExistingIdFilter existingIdFilter;
+
   @Transactional(readOnly = true)
   public OrderDTO findById(Long id) {
-    Order order = repository.findById(id).orElseThrow(
+    if (!existingIdFilter.mightContainOrder(id)) {
+      throw new ResourceNotFoundException(RECURSO_NAO_ENCONTRADO);
+    }
+    Order order = repository.findWithItemsById(id).orElseThrow(
         () -> new ResourceNotFoundException(RECURSO_NAO_ENCONTRADO));
     authService.validateSelfOrAdmin(order.getClient().getId());
     return new OrderDTO(order);
@@ -54,18 +68,42 @@ public class OrderService {
     order.setMoment(Instant.now());
     order.setStatus(OrderStatus.WAITING_PAYMENT);
 
-    User user = userService.authenticated();
-    order.setClient(user);
+    order.setClient(userService.authenticatedReference());
 
+    Map<Long, Product> products = loadProducts(dto.getItems());
     for (OrderItemDTO itemDto : dto.getItems()) {
-      Product product = productRepository.getReferenceById(itemDto.getProductId());
+      Product product = products.get(itemDto.getProductId());
       OrderItem item = new OrderItem(order, product, itemDto.getQuantity(), product.getPrice());
       order.getItems().add(item);
     }
 
+    // os itens são persistidos em cascata e vão para o banco em lote (jdbc.batch_size)
     repository.save(order);
-    orderItemRepository.saveAll(order.getItems());
+
+    Map<Long, Integer> quantities = order.getItems().stream()
+        .collect(Collectors.toMap(x -> x.getProduct().getId(),
+            x -> x.getQuantity() == null ? 0 : x.getQuantity(), Integer::sum));
+    eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), quantities));
 
     return new OrderDTO(order);
   }
+
+  // busca todos os produtos do pedido com um único IN e recusa o pedido inteiro
+  // se algum deles não existir, antes de qualquer escrita
+  private Map<Long, Product> loadProducts(List<OrderItemDTO> items) {
+    if (items.stream().anyMatch(item -> item.getProductId() == null)) {
+      throw new BadRequestException(PRODUTO_OBRIGATORIO);
+    }
+    List<Long> ids = items.stream().map(OrderItemDTO::getProductId).distinct().toList();
+    Map<Long, Product> products = productRepository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+    List<String> missing = ids.stream()
+        .filter(id -> !products.containsKey(id))
+        .map(String::valueOf)
+        .toList();
+    if (!missing.isEmpty()) {
+      throw new ResourceNotFoundException(PRODUTO_NAO_ENCONTRADO + String.join(", ", missing));
+    }
+    return products;
+  }
 }
@@ -0,0 +1,30 @@
+package com.gema.thefirst.services;
+
+import com.gema.thefirst.services.exceptions.BadRequestException;
+
+import static com.gema.thefirst.constants.Constants.TOTAL_INVALIDO;
+
+// Como a listagem de produtos calcula o total de resultados: EXACT roda o
+// count a cada pedido, ESTIMATED usa o count em cache (que pode estar
+// defasado depois de uma gravação) e NONE não conta, só diz se há próxima página.
+public enum PageTotalMode {
+
+  EXACT("exact"),
+  ESTIMATED("estimated"),
+  NONE("none");
+
+  private final String parameter;
+
+  PageTotalMode(String parameter) {
+    this.parameter = parameter;
+  }
+
+  public static PageTotalMode fromParameter(String value) {
+    for (PageTotalMode mode : values()) {
+      if (mode.parameter.equalsIgnoreCase(value)) {
+        return mode;
+      }
+    }
+    throw new BadRequestException(TOTAL_INVALIDO);
+  }
+}
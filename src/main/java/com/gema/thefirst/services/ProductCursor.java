@@ -0,0 +1,99 @@
+package com.gema.thefirst.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.services.exceptions.BadRequestException;
+
+import static com.gema.thefirst.constants.Constants.CURSOR_INVALIDO;
+import static com.gema.thefirst.constants.Constants.CURSOR_OUTRA_CONSULTA;
+import static com.gema.thefirst.constants.Constants.ORDENACAO_INVALIDA;
+
+// Cursor opaco da listagem por keyset: guarda a ordenação, o filtro de nome e a
+// tupla (chave de ordenação, id) do último produto entregue, em Base64 URL-safe.
+// Formato antes da codificação: "<campo>,<asc|desc>:<id>:<nome em Base64>:<valor>".
+// O filtro vai junto porque a posição só vale para a mesma consulta: o cursor
+// usado com outro name é recusado. A chave nunca é nula (name e price são NOT NULL).
+public final class ProductCursor {
+
+  private static final String NAME = "name";
+  private static final String PRICE = "price";
+
+  private final Sort.Order order;
+  private final String name;
+  private final Long lastId;
+  private final Object lastKey;
+
+  private ProductCursor(Sort.Order order, String name, Long lastId, Object lastKey) {
+    this.order = order;
+    this.name = name;
+    this.lastId = lastId;
+    this.lastKey = lastKey;
+  }
+
+  // aceita "name", "price", "name,desc" ou "price,asc"
+  public static Sort.Order parseSort(String sort) {
+    String[] parts = sort.split(",");
+    String property = parts[0].trim();
+    if (!property.equals(NAME) && !property.equals(PRICE) || parts.length > 2) {
+      throw new BadRequestException(ORDENACAO_INVALIDA);
+    }
+    Sort.Direction direction = Sort.Direction.ASC;
+    if (parts.length == 2) {
+      direction = Sort.Direction.fromOptionalString(parts[1].trim())
+          .orElseThrow(() -> new BadRequestException(ORDENACAO_INVALIDA));
+    }
+    return new Sort.Order(direction, property);
+  }
+
+  public static ProductCursor after(Sort.Order order, String name, ProductMinDTO last) {
+    Object key = order.getProperty().equals(NAME) ? last.getName() : last.getPrice();
+    return new ProductCursor(order, name, last.getId(), key);
+  }
+
+  public static ProductCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split(":", 4);
+      Sort.Order order = parseSort(parts[0]);
+      Long id = Long.valueOf(parts[1]);
+      String name = new String(Base64.getUrlDecoder().decode(parts[2]), StandardCharsets.UTF_8);
+      Object key = order.getProperty().equals(NAME) ? parts[3] : Double.valueOf(parts[3]);
+      return new ProductCursor(order, name, id, key);
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | BadRequestException e) {
+      throw new BadRequestException(CURSOR_INVALIDO);
+    }
+  }
+
+  public String encode() {
+    String filter = Base64.getUrlEncoder().withoutPadding().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+    String raw = order.getProperty() + "," + order.getDirection().name().toLowerCase() + ":" + lastId + ":" + filter
+        + ":" + lastKey;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public Sort.Order getOrder() {
+    return order;
+  }
+
+  // o cursor só continua a consulta que o gerou
+  public void checkName(String name) {
+    if (!this.name.equals(name)) {
+      throw new BadRequestException(CURSOR_OUTRA_CONSULTA);
+    }
+  }
+
+  public KeysetScrollPosition position() {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    keys.put(order.getProperty(), lastKey);
+    keys.put("id", lastId);
+    return ScrollPosition.forward(keys);
+  }
+}
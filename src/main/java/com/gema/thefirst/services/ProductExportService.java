@@ -0,0 +1,223 @@
+package com.gema.thefirst.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gema.thefirst.util.CsvUtil;
+
+// Exportação do catálogo inteiro direto do ResultSet para a resposta. A consulta
+// usa um cursor forward-only com fetch size fixo, então só um lote de linhas fica
+// em memória por vez, qualquer que seja o tamanho do catálogo. No PostgreSQL o
+// cursor só existe com autocommit desligado, daí a transação read-only.
+@Service
+public class ProductExportService {
+
+  private static final String SQL = "SELECT p.id, p.name, p.description, p.price, p.img_url, p.updated_at, "
+      + "c.id AS category_id, c.name AS category_name "
+      + "FROM tb_product p "
+      + "LEFT JOIN tb_product_category pc ON pc.product_id = p.id "
+      + "LEFT JOIN tb_category c ON c.id = pc.category_id ";
+  private static final String WHERE_SINCE = "WHERE p.updated_at > ? ";
+  private static final String ORDER_BY = "ORDER BY p.id, c.id";
+
+  @Value("${export.fetch-size}")
+  private int fetchSize;
+
+  @Value("${export.watermark-lag}")
+  private Duration watermarkLag;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  // Valor que o cliente usa como since na próxima exportação. O updatedAt é
+  // marcado no flush, não no commit: uma transação ainda aberta pode gravar um
+  // updatedAt menor que o maior já visível. Por isso o watermark fica atrasado
+  // export.watermark-lag em relação ao relógio, e a faixa entre ele e o agora é
+  // exportada de novo na próxima vez (entrega pelo menos uma vez, por id).
+  @Transactional(readOnly = true)
+  public Instant watermark() {
+    Timestamp max = jdbcTemplate.queryForObject("SELECT MAX(updated_at) FROM tb_product", Timestamp.class);
+    if (max == null) {
+      return null;
+    }
+    Instant cutoff = Instant.now().minus(watermarkLag);
+    return max.toInstant().isAfter(cutoff) ? cutoff : max.toInstant();
+  }
+
+  @Transactional(readOnly = true)
+  public void export(OutputStream out, ProductFileFormat format, Instant since) throws IOException {
+    ProductWriter writer = format == ProductFileFormat.CSV ? new CsvProductWriter(out) : new JsonProductWriter(out);
+    ExportedProduct[] current = new ExportedProduct[1];
+    try {
+      jdbcTemplate.query(connection -> {
+        PreparedStatement ps = connection.prepareStatement(SQL + (since != null ? WHERE_SINCE : "") + ORDER_BY,
+            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(fetchSize);
+        if (since != null) {
+          ps.setTimestamp(1, Timestamp.from(since));
+        }
+        return ps;
+      }, (ResultSet rs) -> {
+        // as linhas de um produto chegam juntas, uma por categoria
+        long id = rs.getLong("id");
+        if (current[0] == null || current[0].id != id) {
+          if (current[0] != null) {
+            write(writer, current[0]);
+          }
+          current[0] = new ExportedProduct(rs);
+        }
+        long categoryId = rs.getLong("category_id");
+        if (!rs.wasNull()) {
+          current[0].categoryIds.add(categoryId);
+          current[0].categoryNames.add(rs.getString("category_name"));
+        }
+      });
+      if (current[0] != null) {
+        write(writer, current[0]);
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    writer.finish();
+  }
+
+  private static void write(ProductWriter writer, ExportedProduct product) {
+    try {
+      writer.write(product);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private interface ProductWriter {
+    void write(ExportedProduct product) throws IOException;
+
+    void finish() throws IOException;
+  }
+
+  // mesmos campos do ProductDTO, mais o updatedAt
+  private class JsonProductWriter implements ProductWriter {
+    private final JsonGenerator generator;
+
+    JsonProductWriter(OutputStream out) throws IOException {
+      generator = objectMapper.getFactory().createGenerator(out);
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // cada objeto termina com '\n'; sem o espaço que o Jackson põe entre valores raiz
+      generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+    }
+
+    @Override
+    public void write(ExportedProduct product) throws IOException {
+      generator.writeStartObject();
+      generator.writeNumberField("id", product.id);
+      generator.writeStringField("name", product.name);
+      generator.writeStringField("description", product.description);
+      if (product.price == null) {
+        generator.writeNullField("price");
+      } else {
+        generator.writeNumberField("price", product.price);
+      }
+      generator.writeStringField("imgUrl", product.imgUrl);
+      generator.writeStringField("updatedAt", product.updatedAt == null ? null : product.updatedAt.toString());
+      generator.writeArrayFieldStart("categories");
+      for (int i = 0; i < product.categoryIds.size(); i++) {
+        generator.writeStartObject();
+        generator.writeNumberField("id", product.categoryIds.get(i));
+        generator.writeStringField("name", product.categoryNames.get(i));
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+      generator.close();
+    }
+  }
+
+  // colunas compatíveis com a importação: o arquivo exportado pode ser reimportado
+  private static class CsvProductWriter implements ProductWriter {
+    private final Writer writer;
+
+    CsvProductWriter(OutputStream out) throws IOException {
+      writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+      writer.write("id,name,description,price,imgUrl,updatedAt,categories\n");
+    }
+
+    @Override
+    public void write(ExportedProduct product) throws IOException {
+      writer.write(String.valueOf(product.id));
+      writer.write(',');
+      writer.write(CsvUtil.formatField(product.name));
+      writer.write(',');
+      writer.write(CsvUtil.formatField(product.description));
+      writer.write(',');
+      writer.write(product.price == null ? "" : product.price.toString());
+      writer.write(',');
+      writer.write(CsvUtil.formatField(product.imgUrl));
+      writer.write(',');
+      writer.write(product.updatedAt == null ? "" : product.updatedAt.toString());
+      writer.write(',');
+      for (int i = 0; i < product.categoryIds.size(); i++) {
+        if (i > 0) {
+          writer.write(';');
+        }
+        writer.write(String.valueOf(product.categoryIds.get(i)));
+      }
+      writer.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+      writer.flush();
+    }
+  }
+
+  private static class ExportedProduct {
+    private final long id;
+    private final String name;
+    private final String description;
+    private final Double price;
+    private final String imgUrl;
+    private final Instant updatedAt;
+    private final List<Long> categoryIds = new ArrayList<>();
+    private final List<String> categoryNames = new ArrayList<>();
+
+    ExportedProduct(ResultSet rs) throws SQLException {
+      id = rs.getLong("id");
+      name = rs.getString("name");
+      description = rs.getString("description");
+      price = rs.getObject("price", Double.class);
+      imgUrl = rs.getString("img_url");
+      Timestamp timestamp = rs.getTimestamp("updated_at");
+      updatedAt = timestamp == null ? null : timestamp.toInstant();
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.gema.thefirst.services;
+
+import com.gema.thefirst.services.exceptions.BadRequestException;
+
+import static com.gema.thefirst.constants.Constants.FORMATO_INVALIDO;
+
+// Formatos de arquivo aceitos na importação e gerados na exportação de produtos.
+// No CSV as categorias vão numa coluna só, com os IDs separados por ';'.
+public enum ProductFileFormat {
+
+  NDJSON("application/x-ndjson", "ndjson"),
+  CSV("text/csv", "csv");
+
+  private final String contentType;
+  private final String extension;
+
+  ProductFileFormat(String contentType, String extension) {
+    this.contentType = contentType;
+    this.extension = extension;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  public static ProductFileFormat fromParameter(String value) {
+    for (ProductFileFormat format : values()) {
+      if (format.extension.equalsIgnoreCase(value)) {
+        return format;
+      }
+    }
+    throw new BadRequestException(FORMATO_INVALIDO);
+  }
+}
@@ -0,0 +1,101 @@
+package com.gema.thefirst.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.gema.thefirst.dto.RowErrorDTO;
+
+// Estado de uma importação em andamento. Os contadores são atualizados pela
+// thread que lê o arquivo e lidos por quem consulta o progresso.
+public class ProductImportJob {
+
+  public enum Status {
+    RUNNING, COMPLETED, FAILED
+  }
+
+  private final String id = UUID.randomUUID().toString();
+  private final Instant startedAt = Instant.now();
+  private final int maxErrors;
+  private final AtomicLong processed = new AtomicLong();
+  private final AtomicLong imported = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final List<RowErrorDTO> errors = new ArrayList<>();
+  private volatile Status status = Status.RUNNING;
+  private volatile Instant finishedAt;
+  private volatile String message;
+
+  public ProductImportJob(int maxErrors) {
+    this.maxErrors = maxErrors;
+  }
+
+  public void rowImported(long count) {
+    processed.addAndGet(count);
+    imported.addAndGet(count);
+  }
+
+  // guarda só os primeiros erros para não acumular o arquivo inteiro em memória;
+  // o total continua sendo contado
+  public void rowFailed(RowErrorDTO error) {
+    processed.incrementAndGet();
+    failed.incrementAndGet();
+    synchronized (errors) {
+      if (errors.size() < maxErrors) {
+        errors.add(error);
+      }
+    }
+  }
+
+  public void finish(Status status, String message) {
+    this.status = status;
+    this.message = message;
+    this.finishedAt = Instant.now();
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public long getProcessed() {
+    return processed.get();
+  }
+
+  public long getImported() {
+    return imported.get();
+  }
+
+  public long getFailed() {
+    return failed.get();
+  }
+
+  public double getRowsPerSecond() {
+    Instant end = finishedAt != null ? finishedAt : Instant.now();
+    double seconds = Duration.between(startedAt, end).toMillis() / 1000.0;
+    return seconds > 0 ? processed.get() / seconds : 0.0;
+  }
+
+  public List<RowErrorDTO> getErrors() {
+    synchronized (errors) {
+      return List.copyOf(errors);
+    }
+  }
+}
@@ -0,0 +1,275 @@
+package com.gema.thefirst.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gema.thefirst.dto.CategoryDTO;
+import com.gema.thefirst.dto.FieldMessage;
+import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.dto.ProductImportDTO;
+import com.gema.thefirst.dto.RowErrorDTO;
+import com.gema.thefirst.entities.Category;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.repositories.CategoryRepository;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+import com.gema.thefirst.services.exceptions.BadRequestException;
+import com.gema.thefirst.services.exceptions.ResourceNotFoundException;
+import com.gema.thefirst.util.CsvUtil;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import static com.gema.thefirst.constants.Constants.RECURSO_NAO_ENCONTRADO;
+
+// Importação em massa de produtos a partir de NDJSON (um ProductDTO por linha)
+// ou CSV (cabeçalho com name, description, price, imgUrl e categories, esta com
+// IDs separados por ';'). O arquivo é lido linha a linha e gravado em lotes,
+// cada lote na sua própria transação, sem nunca ficar inteiro em memória.
+@Service
+public class ProductImportService {
+
+  private static final int HISTORY_SIZE = 20;
+  private static final List<String> CSV_REQUIRED_COLUMNS = List.of("name", "description", "price", "categories");
+
+  @Value("${import.batch-size}")
+  private int batchSize;
+
+  @Value("${import.max-errors}")
+  private int maxErrors;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private Validator validator;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  private final Map<String, ProductImportJob> jobs = new ConcurrentHashMap<>();
+
+  public ProductImportDTO importProducts(InputStream input, ProductFileFormat format) throws IOException {
+    ProductImportJob job = register();
+    Map<Long, Category> categories = categoryRepository.findAll().stream()
+        .collect(Collectors.toMap(Category::getId, Function.identity()));
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+      Map<String, Integer> columns = format == ProductFileFormat.CSV ? readHeader(reader.readLine()) : null;
+      long row = format == ProductFileFormat.CSV ? 1 : 0;
+      List<PendingRow> batch = new ArrayList<>(batchSize);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        row++;
+        if (line.isBlank()) {
+          continue;
+        }
+        List<FieldMessage> errors = new ArrayList<>();
+        ProductDTO dto = format == ProductFileFormat.CSV ? parseCsv(line, columns, errors) : parseJson(line, errors);
+        if (dto != null) {
+          validate(dto, categories, errors);
+        }
+        if (!errors.isEmpty()) {
+          job.rowFailed(new RowErrorDTO(row, errors));
+          continue;
+        }
+        batch.add(new PendingRow(row, toEntity(dto, categories)));
+        if (batch.size() >= batchSize) {
+          flush(batch, job);
+          batch.clear();
+        }
+      }
+      flush(batch, job);
+      job.finish(ProductImportJob.Status.COMPLETED, null);
+    } catch (IOException | RuntimeException e) {
+      // conexão caída ou cabeçalho inválido: o que já foi gravado fica gravado
+      job.finish(ProductImportJob.Status.FAILED, e.getMessage());
+      throw e;
+    }
+    return new ProductImportDTO(job);
+  }
+
+  public List<ProductImportDTO> findAll() {
+    return jobs.values().stream()
+        .sorted(Comparator.comparing(ProductImportJob::getStartedAt).reversed())
+        .map(x -> new ProductImportDTO(x))
+        .toList();
+  }
+
+  public ProductImportDTO findById(String id) {
+    ProductImportJob job = Optional.ofNullable(jobs.get(id)).orElseThrow(
+        () -> new ResourceNotFoundException(RECURSO_NAO_ENCONTRADO));
+    return new ProductImportDTO(job);
+  }
+
+  // mantém as importações em andamento e só as últimas concluídas
+  private ProductImportJob register() {
+    ProductImportJob job = new ProductImportJob(maxErrors);
+    jobs.put(job.getId(), job);
+    List<ProductImportJob> finished = jobs.values().stream()
+        .filter(x -> x.getStatus() != ProductImportJob.Status.RUNNING)
+        .sorted(Comparator.comparing(ProductImportJob::getStartedAt).reversed())
+        .toList();
+    finished.stream().skip(HISTORY_SIZE).forEach(x -> jobs.remove(x.getId()));
+    return job;
+  }
+
+  private void flush(List<PendingRow> batch, ProductImportJob job) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      save(batch.stream().map(x -> x.product).toList());
+      job.rowImported(batch.size());
+    } catch (RuntimeException e) {
+      // o lote inteiro voltou; regrava linha a linha para achar as que falham
+      for (PendingRow pending : batch) {
+        pending.product.setId(null);
+        pending.product.setVersion(null);
+        try {
+          save(List.of(pending.product));
+          job.rowImported(1);
+        } catch (RuntimeException rowException) {
+          String message = NestedExceptionUtils.getMostSpecificCause(rowException).getMessage();
+          job.rowFailed(new RowErrorDTO(pending.row, List.of(new FieldMessage("row", message))));
+        }
+      }
+    }
+  }
+
+  private void save(List<Product> products) {
+    transactionTemplate.executeWithoutResult(status -> {
+      productRepository.saveAll(products);
+      for (Product product : products) {
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+      }
+    });
+  }
+
+  private Map<String, Integer> readHeader(String header) {
+    if (header == null) {
+      throw new BadRequestException("Arquivo CSV vazio");
+    }
+    Map<String, Integer> columns = new HashMap<>();
+    List<String> names = CsvUtil.parseLine(header);
+    for (int i = 0; i < names.size(); i++) {
+      columns.put(names.get(i).trim(), i);
+    }
+    for (String required : CSV_REQUIRED_COLUMNS) {
+      if (!columns.containsKey(required)) {
+        throw new BadRequestException("Coluna obrigatória ausente no CSV: " + required);
+      }
+    }
+    return columns;
+  }
+
+  private ProductDTO parseCsv(String line, Map<String, Integer> columns, List<FieldMessage> errors) {
+    List<String> fields;
+    try {
+      fields = CsvUtil.parseLine(line);
+    } catch (IllegalArgumentException e) {
+      errors.add(new FieldMessage("row", e.getMessage()));
+      return null;
+    }
+    Double price = null;
+    String rawPrice = column(fields, columns, "price");
+    if (rawPrice != null) {
+      try {
+        price = Double.valueOf(rawPrice);
+      } catch (NumberFormatException e) {
+        errors.add(new FieldMessage("price", "Preço inválido: " + rawPrice));
+      }
+    }
+    ProductDTO dto = new ProductDTO(null, column(fields, columns, "name"), column(fields, columns, "description"),
+        price, column(fields, columns, "imgUrl"));
+    String rawCategories = column(fields, columns, "categories");
+    if (rawCategories != null) {
+      for (String id : rawCategories.split(";")) {
+        try {
+          dto.getCategories().add(new CategoryDTO(Long.valueOf(id.trim()), null));
+        } catch (NumberFormatException e) {
+          errors.add(new FieldMessage("categories", "Categoria inválida: " + id));
+        }
+      }
+    }
+    return dto;
+  }
+
+  private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+    Integer index = columns.get(name);
+    if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+      return null;
+    }
+    return fields.get(index);
+  }
+
+  private ProductDTO parseJson(String line, List<FieldMessage> errors) {
+    try {
+      return objectMapper.readValue(line, ProductDTO.class);
+    } catch (JsonProcessingException e) {
+      errors.add(new FieldMessage("row", "JSON inválido: " + e.getOriginalMessage()));
+      return null;
+    }
+  }
+
+  // mesmas regras de validação do ProductDTO no POST /products, mais a
+  // existência das categorias
+  private void validate(ProductDTO dto, Map<Long, Category> categories, List<FieldMessage> errors) {
+    for (ConstraintViolation<ProductDTO> violation : validator.validate(dto)) {
+      errors.add(new FieldMessage(violation.getPropertyPath().toString(), violation.getMessage()));
+    }
+    for (CategoryDTO category : dto.getCategories()) {
+      if (category == null || !categories.containsKey(category.getId())) {
+        errors.add(new FieldMessage("categories", "Categoria inexistente: "
+            + (category == null ? null : category.getId())));
+      }
+    }
+  }
+
+  private static Product toEntity(ProductDTO dto, Map<Long, Category> categories) {
+    Product entity = new Product(null, dto.getName(), dto.getDescription(), dto.getPrice(), dto.getImgUrl());
+    for (CategoryDTO category : dto.getCategories()) {
+      entity.getCategories().add(categories.get(category.getId()));
+    }
+    return entity;
+  }
+
+  private static class PendingRow {
+    private final long row;
+    private final Product product;
+
+    PendingRow(long row, Product product) {
+      this.row = row;
+      this.product = product;
+    }
+  }
+}
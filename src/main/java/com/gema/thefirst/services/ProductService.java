@@ -1,24 +1,66 @@
 package com.gema.thefirst.services;
 
 import com.gema.thefirst.dto.CategoryDTO;
+import com.gema.thefirst.dto.CategoryFacetDTO;
+import com.gema.thefirst.dto.CountedPageDTO;
+import com.gema.thefirst.dto.CursorPageDTO;
+import com.gema.thefirst.dto.FacetedPageDTO;
+import com.gema.thefirst.dto.PriceFacetDTO;
 import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.dto.ProductFacetsDTO;
+import com.gema.thefirst.dto.ProductLookupDTO;
 import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.dto.ProductSuggestionDTO;
 import com.gema.thefirst.entities.Category;
 import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.repositories.CategoryRepository;
 import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.cache.ExistingIdFilter;
+import com.gema.thefirst.services.cache.ProductCache;
+import com.gema.thefirst.services.cache.ProductCountCache;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+import com.gema.thefirst.services.exceptions.BadRequestException;
 import com.gema.thefirst.services.exceptions.DatabaseException;
 import com.gema.thefirst.services.exceptions.ResourceNotFoundException;
+import com.gema.thefirst.services.search.CategoryBitmapIndex;
+import com.gema.thefirst.services.search.ProductFacetIndex;
+import com.gema.thefirst.services.search.ProductSearchEngine;
+import com.gema.thefirst.services.search.ProductSuggestIndex;
 import jakarta.persistence.EntityNotFoundException;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.gema.thefirst.constants.Constants.FACET_CATEGORY;
+import static com.gema.thefirst.constants.Constants.FACET_PRICE;
 import static com.gema.thefirst.constants.Constants.FALHA_INTEGRIDADE_REFERENCIAL;
 import static com.gema.thefirst.constants.Constants.RECURSO_NAO_ENCONTRADO;
+import static com.gema.thefirst.constants.Constants.SUGESTOES_EXCEDIDAS;
 
 @Service
 public class ProductService {
@@ -26,17 +68,199 @@ public class ProductService {
   @Autowired
   private ProductRepository productRepository;
 
-  @Transactional(readOnly = true)
+  @Autowired
+  private ProductCache productCache;
+
+  @Autowired
+  private ProductCountCache productCountCache;
+
+  @Autowired
+  private ExistingIdFilter existingIdFilter;
+
+  @Autowired
+  private ProductSearchEngine productSearchEngine;
+
+  @Autowired
+  private CategoryBitmapIndex categoryBitmapIndex;
+
+  @Autowired
+  private ProductFacetIndex productFacetIndex;
+
+  @Autowired
+  private ProductSuggestIndex productSuggestIndex;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
   public ProductDTO findById(Long id) {
-    Product product = productRepository.findById(id).orElseThrow(
+    if (!existingIdFilter.mightContainProduct(id)) {
+      throw new ResourceNotFoundException(RECURSO_NAO_ENCONTRADO);
+    }
+    return productCache.get(id);
+  }
+
+  // na ordem pedida, com um item por ID (repetidos inclusive); os que não
+  // estão no cache de produtos vêm todos numa consulta só
+  public List<ProductLookupDTO> findAllById(List<Long> ids) {
+    Set<Long> candidates = ids.stream().filter(existingIdFilter::mightContainProduct)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    Map<Long, ProductDTO> found = productCache.getAll(candidates);
+    return ids.stream().map(id -> new ProductLookupDTO(id, found.get(id))).toList();
+  }
+
+  // versão atual do produto para revalidar o ETag: do cache se estiver lá,
+  // senão uma consulta só da coluna version
+  @Transactional(readOnly = true)
+  public Integer findVersion(Long id) {
+    if (!existingIdFilter.mightContainProduct(id)) {
+      throw new ResourceNotFoundException(RECURSO_NAO_ENCONTRADO);
+    }
+    ProductDTO cached = productCache.getIfPresent(id);
+    if (cached != null) {
+      return cached.getVersion();
+    }
+    return productRepository.findVersionById(id).orElseThrow(
         () -> new ResourceNotFoundException(RECURSO_NAO_ENCONTRADO));
-    return new ProductDTO(product);
+  }
+
+  // categoryIds vazio não filtra; matchAll exige todas as categorias em vez de
+  // qualquer uma delas. Os índices em memória atendem quando podem; senão, banco.
+  // facets pede as contagens (FACET_CATEGORY, FACET_PRICE) de todos os resultados.
+  // total diz como calcular o total da página; com NONE volta um Slice.
+  @Transactional(readOnly = true)
+  public Slice<ProductMinDTO> findAll(String name, List<Long> categoryIds, boolean matchAll, Set<String> facets,
+      PageTotalMode total, Pageable pageable) {
+    String term = name.isBlank() ? "" : name;
+    RoaringBitmap filter = null;
+    boolean indexed = true;
+    if (!categoryIds.isEmpty()) {
+      Optional<RoaringBitmap> inCategories = categoryBitmapIndex.filter(categoryIds, matchAll);
+      filter = inCategories.orElse(null);
+      indexed = inCategories.isPresent();
+    }
+    Slice<ProductMinDTO> result = search(term, categoryIds, matchAll, filter, indexed, total, pageable);
+    if (facets.isEmpty() || !(result instanceof Page<ProductMinDTO> page)) {
+      return result;
+    }
+    ProductFacetsDTO counts = indexed ? facets(term, filter, facets) : null;
+    return new FacetedPageDTO<>(page, counts);
+  }
+
+  private Slice<ProductMinDTO> search(String name, List<Long> categoryIds, boolean matchAll, RoaringBitmap filter,
+      boolean indexed, PageTotalMode total, Pageable pageable) {
+    if (indexed && (!name.isEmpty() || filter != null)) {
+      Optional<Page<Long>> hits = productSearchEngine.search(name, filter, pageable);
+      if (hits.isPresent()) {
+        // o total vem dos bitmaps, exato e sem custo
+        Page<ProductMinDTO> page = hydrate(hits.get());
+        return switch (total) {
+          case EXACT -> page;
+          case ESTIMATED -> new CountedPageDTO<>(page);
+          case NONE -> new SliceImpl<>(page.getContent(), pageable, page.hasNext());
+        };
+      }
+    }
+    Set<Long> distinct = new HashSet<>(categoryIds);
+    long minMatches = matchAll ? distinct.size() : 1;
+    if (total == PageTotalMode.EXACT) {
+      return distinct.isEmpty()
+          ? productRepository.searchByName(name, pageable)
+          : productRepository.searchByNameAndCategories(name, distinct, minMatches, pageable);
+    }
+    Slice<ProductMinDTO> slice = distinct.isEmpty()
+        ? productRepository.sliceByName(name, pageable)
+        : productRepository.sliceByNameAndCategories(name, distinct, minMatches, pageable);
+    if (total == PageTotalMode.NONE) {
+      return slice;
+    }
+    return estimate(slice, name, distinct, minMatches, pageable);
+  }
+
+  // página com o total do cache de counts. O Slice já diz o bastante para
+  // corrigir o total: sem próxima página ele é exato; com próxima, no mínimo
+  // uma linha além da página atual
+  private Page<ProductMinDTO> estimate(Slice<ProductMinDTO> slice, String name, Set<Long> categoryIds,
+      long minMatches, Pageable pageable) {
+    long seen = pageable.getOffset() + slice.getNumberOfElements();
+    if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+      return new CountedPageDTO<>(slice.getContent(), pageable, seen, true);
+    }
+    ProductCountCache.Count count = productCountCache.get(name, categoryIds, minMatches);
+    long estimated = slice.hasNext() ? Math.max(count.getTotal(), seen + 1) : count.getTotal();
+    return new CountedPageDTO<>(slice.getContent(), pageable, estimated,
+        count.isExact() && estimated == count.getTotal());
+  }
+
+  // uma passada sobre o conjunto de IDs da busca; null quando os índices em
+  // memória não atendem (ainda sendo montados ou com IDs acima do int)
+  private ProductFacetsDTO facets(String name, RoaringBitmap filter, Set<String> facets) {
+    boolean byCategory = facets.contains(FACET_CATEGORY);
+    boolean byPrice = facets.contains(FACET_PRICE);
+    Optional<ProductFacetIndex.Counts> counts = productSearchEngine.matching(name, filter)
+        .flatMap(ids -> productFacetIndex.count(ids, byCategory, byPrice));
+    if (counts.isEmpty()) {
+      return null;
+    }
+
+    List<CategoryFacetDTO> categories = null;
+    if (byCategory) {
+      Map<Long, Long> byId = counts.get().getByCategory();
+      Map<Long, String> names = categoryRepository.findAllById(byId.keySet()).stream()
+          .collect(Collectors.toMap(Category::getId, Category::getName));
+      categories = byId.entrySet().stream()
+          .map(x -> new CategoryFacetDTO(x.getKey(), names.get(x.getKey()), x.getValue()))
+          .sorted(Comparator.comparing(CategoryFacetDTO::getCount).reversed()
+              .thenComparing(CategoryFacetDTO::getId))
+          .toList();
+    }
+
+    List<PriceFacetDTO> prices = null;
+    if (byPrice) {
+      double[] buckets = productFacetIndex.getPriceBuckets();
+      long[] byBucket = counts.get().getByPrice();
+      prices = new ArrayList<>();
+      for (int i = 0; i < buckets.length; i++) {
+        Double max = i + 1 < buckets.length ? buckets[i + 1] : null;
+        prices.add(new PriceFacetDTO(buckets[i], max, byBucket[i]));
+      }
+    }
+    return new ProductFacetsDTO(categories, prices);
+  }
+
+  // autocomplete servido só da memória, sem consulta ao banco
+  // a trie só guarda suggest.top-k sugestões por nó: mais que isso não existe
+  public List<ProductSuggestionDTO> suggest(String prefix, int size) {
+    if (size > productSuggestIndex.getTopK()) {
+      throw new BadRequestException(SUGESTOES_EXCEDIDAS + productSuggestIndex.getTopK());
+    }
+    return productSuggestIndex.suggest(prefix, size);
   }
 
   @Transactional(readOnly = true)
-  public Page<ProductMinDTO> findAll(String name, Pageable pageable) {
-    Page<Product> result = productRepository.searchByName(name, pageable);
-    return result.map(x -> new ProductMinDTO(x));
+  public CursorPageDTO<ProductMinDTO> scroll(String name, String sort, int size, String cursor) {
+    Sort.Order order;
+    ScrollPosition position;
+    if (cursor == null || cursor.isBlank()) {
+      order = ProductCursor.parseSort(sort);
+      position = ScrollPosition.keyset();
+    } else {
+      ProductCursor previous = ProductCursor.decode(cursor);
+      previous.checkName(name);
+      order = previous.getOrder();
+      position = previous.position();
+    }
+    Window<ProductMinDTO> window = productRepository.findByNameContainingIgnoreCase(name, position,
+        Sort.by(order, Sort.Order.by("id").with(order.getDirection())), Limit.of(size))
+        .map(x -> new ProductMinDTO(x.getId(), x.getName(), x.getPrice(), x.getImgUrl()));
+    List<ProductMinDTO> content = window.getContent();
+    String next = null;
+    if (window.hasNext() && !window.isEmpty()) {
+      next = ProductCursor.after(order, name, window.getContent().get(window.size() - 1)).encode();
+    }
+    return new CursorPageDTO<>(content, next);
   }
 
   @Transactional
@@ -44,6 +268,7 @@ public class ProductService {
     Product entity = new Product();
     copyDtoToEntity(dto, entity);
     entity = productRepository.save(entity);
+    eventPublisher.publishEvent(ProductChangedEvent.saved(entity));
     return new ProductDTO(entity);
   }
 
@@ -52,7 +277,11 @@ public class ProductService {
     try {
       Product entity = productRepository.getReferenceById(id);
       copyDtoToEntity(dto, entity);
-      entity = productRepository.save(entity);
+      // troca só de categorias não suja a entidade e não dispara o @PreUpdate
+      entity.touch();
+      // flush para a resposta já trazer a versão incrementada
+      entity = productRepository.saveAndFlush(entity);
+      eventPublisher.publishEvent(ProductChangedEvent.saved(entity));
       return new ProductDTO(entity);
     } catch (EntityNotFoundException e) {
       throw new ResourceNotFoundException(RECURSO_NAO_ENCONTRADO);
@@ -66,13 +295,25 @@ public class ProductService {
     }
     try {
       productRepository.deleteById(id);
+      eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     } catch (DataIntegrityViolationException e) {
       throw new DatabaseException(FALHA_INTEGRIDADE_REFERENCIAL);
     }
   }
 
+  // carrega os produtos da página devolvida pelo motor de busca mantendo a
+  // ordem do ranking; IDs removidos nesse meio tempo são descartados
+  private Page<ProductMinDTO> hydrate(Page<Long> hits) {
+    Map<Long, ProductMinDTO> byId = productRepository.findMinByIdIn(hits.getContent()).stream()
+        .collect(Collectors.toMap(ProductMinDTO::getId, Function.identity()));
+    List<ProductMinDTO> content = hits.getContent().stream()
+        .map(byId::get)
+        .filter(Objects::nonNull)
+        .toList();
+    return new PageImpl<>(content, hits.getPageable(), hits.getTotalElements());
+  }
+
   private void copyDtoToEntity(ProductDTO dto, Product entity) {
-    entity.setId(dto.getId());
     entity.setName(dto.getName());
     entity.setDescription(dto.getDescription());
     entity.setPrice(dto.getPrice());
@@ -14,6 +14,8 @@ import com.gema.thefirst.entities.Role;
 import com.gema.thefirst.entities.User;
 import com.gema.thefirst.projections.UserDetailsProjection;
 import com.gema.thefirst.repositories.UserRepository;
+import com.gema.thefirst.services.cache.UserDetailsCache;
+import com.gema.thefirst.util.AuthenticatedUser;
 import com.gema.thefirst.util.CustomUserUtil;
 
 import static com.gema.thefirst.constants.Constants.EMAIL_NOT_FOUND;
@@ -27,13 +29,15 @@ public class UserService implements UserDetailsService {
   @Autowired
   private CustomUserUtil customUserUtil;
 
+  @Autowired
+  private UserDetailsCache userDetailsCache;
+
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    List<UserDetailsProjection> result = repository.searchUserAndRolesByEmail(username);
-    if (result.size() == 0) {
-      throw new UsernameNotFoundException("User not found");
-    }
+    // a junção de usuário e perfis sai do cache; cada login recebe um User novo
+    List<UserDetailsProjection> result = userDetailsCache.get(username);
     User user = new User();
+    user.setId(result.get(0).getId());
     user.setEmail(username);
     user.setPassword(result.get(0).getPassword());
     for (UserDetailsProjection projection : result) {
@@ -42,18 +46,33 @@ public class UserService implements UserDetailsService {
     return user;
   }
 
-  protected User authenticated() {
+  // Usuário da requisição a partir dos claims do token, sem ir ao banco.
+  // Tokens emitidos antes do claim user_id custam uma consulta pelo e-mail.
+  protected AuthenticatedUser authenticated() {
+    AuthenticatedUser user;
     try {
-      String username = customUserUtil.getLoggedUsername();
-      return repository.findByEmail(username).get();
+      user = customUserUtil.getLoggedUser();
     } catch (Exception e) {
       throw new UsernameNotFoundException(EMAIL_NOT_FOUND);
     }
+    if (user.getId() != null) {
+      return user;
+    }
+    User entity = repository.findByEmail(user.getUsername())
+        .orElseThrow(() -> new UsernameNotFoundException(EMAIL_NOT_FOUND));
+    return new AuthenticatedUser(entity.getId(), user.getUsername(), user.getAuthorities());
+  }
+
+  // referência ao usuário autenticado para associar a outras entidades, sem
+  // carregar o registro
+  protected User authenticatedReference() {
+    return repository.getReferenceById(authenticated().getId());
   }
 
   @Transactional(readOnly = true)
   public UserDTO getMe() {
-    User user = authenticated();
+    User user = repository.findById(authenticated().getId())
+        .orElseThrow(() -> new UsernameNotFoundException(EMAIL_NOT_FOUND));
     return new UserDTO(user);
   }
 }
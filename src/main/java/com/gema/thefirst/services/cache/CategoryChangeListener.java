@@ -0,0 +1,47 @@
+package com.gema.thefirst.services.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gema.thefirst.entities.Category;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Listener JPA de Category. O Hibernate pede a instância ao Spring (por isso o
+// @Autowired funciona) enquanto o EntityManagerFactory ainda está sendo criado,
+// daí o @Lazy: o cache depende do repositório, que depende do EMF.
+// Invalida na hora e de novo depois do commit, para que uma leitura feita no
+// meio da transação não deixe a lista antiga no cache. As facetas da listagem
+// de produtos trazem o nome das categorias, então o Last-Modified dela avança.
+public class CategoryChangeListener {
+
+  @Lazy
+  @Autowired
+  private CategoryResponseCache categoryResponseCache;
+
+  @Lazy
+  @Autowired
+  private ProductCatalogClock productCatalogClock;
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void onChange(Category category) {
+    categoryResponseCache.invalidate();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          categoryResponseCache.invalidate();
+          productCatalogClock.touch();
+        }
+      });
+    } else {
+      productCatalogClock.touch();
+    }
+  }
+}
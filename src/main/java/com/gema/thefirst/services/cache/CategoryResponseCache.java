@@ -0,0 +1,131 @@
+package com.gema.thefirst.services.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gema.thefirst.services.CategoryService;
+
+// Resposta de GET /categories já serializada: o JSON, a versão gzip e os ETags
+// das duas. As categorias quase nunca mudam e a lista é pedida em toda página
+// da loja, então a mesma resposta é montada uma vez e servida como bytes.
+// Invalidada pelo CategoryChangeListener a cada escrita em Category e, para
+// mudanças feitas fora da aplicação, pelo TTL.
+@Component
+public class CategoryResponseCache {
+
+  @Value("${cache.categories.ttl}")
+  private Duration ttl;
+
+  @Autowired
+  private CategoryService categoryService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private volatile Snapshot snapshot;
+  // incrementado a cada invalidação; uma carga que começou antes dela é descartada
+  private final AtomicLong generation = new AtomicLong();
+
+  public Snapshot get() {
+    Snapshot current = snapshot;
+    if (current != null && !current.isExpired()) {
+      return current;
+    }
+    synchronized (this) {
+      current = snapshot;
+      if (current == null || current.isExpired()) {
+        long loadedGeneration = generation.get();
+        current = load();
+        if (generation.get() == loadedGeneration) {
+          snapshot = current;
+        }
+      }
+      return current;
+    }
+  }
+
+  public void invalidate() {
+    generation.incrementAndGet();
+    snapshot = null;
+  }
+
+  private Snapshot load() {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(categoryService.findAll());
+      return new Snapshot(json, gzip(json), Instant.now().plus(ttl));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static byte[] gzip(byte[] content) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(content.length);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(content);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  public static class Snapshot {
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String etag;
+    private final String gzipEtag;
+    private final Instant expiresAt;
+
+    Snapshot(byte[] json, byte[] gzip, Instant expiresAt) {
+      this.json = json;
+      this.gzip = gzip;
+      this.expiresAt = expiresAt;
+      String hash = hash(json);
+      // ETag forte é por representação: o gzip tem o seu
+      this.etag = "\"" + hash + "\"";
+      this.gzipEtag = "\"" + hash + "-gzip\"";
+    }
+
+    public byte[] getJson() {
+      return json;
+    }
+
+    public byte[] getGzip() {
+      return gzip;
+    }
+
+    public String getEtag() {
+      return etag;
+    }
+
+    public String getGzipEtag() {
+      return gzipEtag;
+    }
+
+    boolean isExpired() {
+      return Instant.now().isAfter(expiresAt);
+    }
+
+    private static String hash(byte[] content) {
+      try {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22);
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
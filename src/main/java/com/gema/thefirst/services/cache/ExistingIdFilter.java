@@ -0,0 +1,224 @@
+package com.gema.thefirst.services.cache;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gema.thefirst.entities.Order;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.repositories.OrderRepository;
+import com.gema.thefirst.repositories.ProductRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+// IDs existentes de produtos e pedidos, em RoaringBitmap, para recusar em
+// memória os GET de IDs que não existem (links quebrados, varreduras) sem
+// gastar uma conexão do banco. Diferente de um filtro de Bloom, o bitmap não
+// tem falso positivo, e os IDs sequenciais o deixam compacto.
+// Mantido pelo ExistingIdListener a cada persist/remove do JPA e remontado de
+// tempos em tempos (ids-filter.rebuild-interval) para pegar o que foi gravado
+// por fora da aplicação. Enquanto monta na subida, não recusa nada.
+// Com ids-filter.multi-instance, um ID ausente só é recusado se não passar do
+// maior ID da leitura anterior à atual: os criados em outras instâncias depois
+// dela vão ao banco até uma remontagem vê-los.
+@Component
+public class ExistingIdFilter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ExistingIdFilter.class);
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${ids-filter.multi-instance}")
+  private boolean multiInstance;
+
+  private IdSet products;
+  private IdSet orders;
+  private Counter productsRejected;
+  private Counter ordersRejected;
+
+  @PostConstruct
+  public void init() {
+    products = new IdSet(multiInstance);
+    orders = new IdSet(multiInstance);
+    productsRejected = Counter.builder("ids.filter.rejected").tag("type", "product").register(meterRegistry);
+    ordersRejected = Counter.builder("ids.filter.rejected").tag("type", "order").register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${ids-filter.rebuild-interval}", initialDelayString = "${ids-filter.rebuild-interval}")
+  @Transactional(readOnly = true)
+  public void build() {
+    long start = System.nanoTime();
+    try (Stream<Long> ids = productRepository.streamAllIds()) {
+      products.rebuild(ids);
+    }
+    try (Stream<Long> ids = orderRepository.streamAllIds()) {
+      orders.rebuild(ids);
+    }
+    LOG.info("Existing id filter built: {} products, {} orders in {} ms", products.size(), orders.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  // false só quando o produto com certeza não existe
+  public boolean mightContainProduct(Long id) {
+    boolean result = products.mightContain(id);
+    if (!result) {
+      productsRejected.increment();
+    }
+    return result;
+  }
+
+  // false só quando o pedido com certeza não existe
+  public boolean mightContainOrder(Long id) {
+    boolean result = orders.mightContain(id);
+    if (!result) {
+      ordersRejected.increment();
+    }
+    return result;
+  }
+
+  // chamados pelo ExistingIdListener
+  void added(Object entity) {
+    if (entity instanceof Product product) {
+      products.apply(product.getId(), true);
+    } else if (entity instanceof Order order) {
+      orders.apply(order.getId(), true);
+    }
+  }
+
+  void removed(Object entity) {
+    if (entity instanceof Product product) {
+      products.apply(product.getId(), false);
+    } else if (entity instanceof Order order) {
+      orders.apply(order.getId(), false);
+    }
+  }
+
+  // package-private para os testes
+  static class IdSet {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean multiInstance;
+    private RoaringBitmap ids = new RoaringBitmap();
+
+    // Alterações desde o início da remontagem anterior, unidas ao bitmap novo
+    // antes da troca: um persist cuja transação ainda não tinha feito commit
+    // quando a consulta leu a tabela não aparece na leitura, e sem isso sumiria
+    // do filtro até a remontagem seguinte. Os IDs não são reaproveitados, então
+    // remoção vence adição.
+    private Changes previous = new Changes();
+    private Changes current = new Changes();
+    private volatile boolean ready;
+
+    // maior ID da leitura anterior à atual; em várias instâncias, IDs acima
+    // dele podem ter sido criados em outra e ainda não lidos
+    private volatile long confirmedMax;
+    private long lastSnapshotMax;
+
+    IdSet(boolean multiInstance) {
+      this.multiInstance = multiInstance;
+    }
+
+    void rebuild(Stream<Long> source) {
+      lock.writeLock().lock();
+      try {
+        previous = current;
+        current = new Changes();
+      } finally {
+        lock.writeLock().unlock();
+      }
+
+      // o bitmap atual continua atendendo enquanto o novo é montado
+      RoaringBitmap fresh = new RoaringBitmap();
+      // acima de Integer.MAX_VALUE o mightContain não consulta o bitmap
+      source.filter(id -> id <= Integer.MAX_VALUE).forEach(id -> fresh.add(id.intValue()));
+      long snapshotMax = fresh.isEmpty() ? 0 : Integer.toUnsignedLong(fresh.last());
+
+      lock.writeLock().lock();
+      try {
+        previous.applyTo(fresh);
+        current.applyTo(fresh);
+        ids = fresh;
+        confirmedMax = ready ? lastSnapshotMax : 0;
+        lastSnapshotMax = snapshotMax;
+        ready = true;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    void apply(Long id, boolean exists) {
+      if (id > Integer.MAX_VALUE) {
+        return;
+      }
+      int value = id.intValue();
+      lock.writeLock().lock();
+      try {
+        if (exists) {
+          current.added.add(value);
+          ids.add(value);
+        } else {
+          current.removed.add(value);
+          ids.remove(value);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    boolean mightContain(Long id) {
+      if (!ready || id > Integer.MAX_VALUE) {
+        return true;
+      }
+      if (id <= 0) {
+        return false;
+      }
+      lock.readLock().lock();
+      try {
+        if (ids.contains(id.intValue())) {
+          return true;
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+      return multiInstance && id > confirmedMax;
+    }
+
+    int size() {
+      lock.readLock().lock();
+      try {
+        return ids.getCardinality();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+  }
+
+  private static class Changes {
+    private final RoaringBitmap added = new RoaringBitmap();
+    private final RoaringBitmap removed = new RoaringBitmap();
+
+    void applyTo(RoaringBitmap bitmap) {
+      bitmap.or(added);
+      bitmap.andNot(removed);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.gema.thefirst.services.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+
+// Listener JPA de Product e Order que mantém o ExistingIdFilter, para pegar
+// toda gravação pelo JPA (serviços, importação, testes), não só as que
+// publicam eventos. @Lazy pelo mesmo motivo do CategoryChangeListener.
+// O ID entra na hora: se a transação voltar, sobra um ID que só custa uma
+// consulta. Já a remoção espera o commit, senão um rollback daria 404 falso.
+public class ExistingIdListener {
+
+  @Lazy
+  @Autowired
+  private ExistingIdFilter existingIdFilter;
+
+  @PostPersist
+  public void onPersist(Object entity) {
+    existingIdFilter.added(entity);
+  }
+
+  @PostRemove
+  public void onRemove(Object entity) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      existingIdFilter.removed(entity);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        existingIdFilter.removed(entity);
+      }
+    });
+  }
+}
@@ -0,0 +1,110 @@
+package com.gema.thefirst.services.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+import com.gema.thefirst.services.exceptions.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+import static com.gema.thefirst.constants.Constants.RECURSO_NAO_ENCONTRADO;
+
+// Cache read-through dos ProductDTO completos (com categorias) servidos em
+// GET /products/{id}. Caffeine limita o tamanho com W-TinyLFU (mistura de LRU e
+// LFU), expira por TTL e garante uma única carga por ID quando vários pedidos
+// erram o cache ao mesmo tempo. Estatísticas em /actuator/metrics/cache.gets.
+@Component
+public class ProductCache {
+
+  @Value("${cache.product.max-size}")
+  private long maxSize;
+
+  @Value("${cache.product.ttl}")
+  private Duration ttl;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private LoadingCache<Long, ProductDTO> cache;
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build(new CacheLoader<>() {
+          @Override
+          public ProductDTO load(Long id) {
+            return ProductCache.this.load(id);
+          }
+
+          @Override
+          public Map<Long, ProductDTO> loadAll(Set<? extends Long> ids) {
+            return ProductCache.this.loadAll(ids);
+          }
+        });
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+  }
+
+  public ProductDTO get(Long id) {
+    return cache.get(id);
+  }
+
+  // os que faltam no cache vêm numa consulta só; IDs inexistentes ficam fora
+  // do mapa (e fora do cache)
+  public Map<Long, ProductDTO> getAll(Collection<Long> ids) {
+    return cache.getAll(ids);
+  }
+
+  // só o que já está em memória, sem disparar carga
+  public ProductDTO getIfPresent(Long id) {
+    return cache.getIfPresent(id);
+  }
+
+  public void invalidate(Long id) {
+    cache.invalidate(id);
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    invalidate(event.getId());
+  }
+
+  private ProductDTO load(Long id) {
+    Product product = productRepository.findWithCategoriesById(id).orElseThrow(
+        () -> new ResourceNotFoundException(RECURSO_NAO_ENCONTRADO));
+    return new ProductDTO(product);
+  }
+
+  private Map<Long, ProductDTO> loadAll(Set<? extends Long> ids) {
+    return productRepository.findWithCategoriesByIdIn(List.copyOf(ids)).stream()
+        .collect(Collectors.toMap(Product::getId, x -> new ProductDTO(x)));
+  }
+}
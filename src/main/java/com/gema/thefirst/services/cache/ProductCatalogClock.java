@@ -0,0 +1,164 @@
+package com.gema.thefirst.services.cache;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gema.thefirst.services.events.ProductChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+
+// Last-Modified da listagem de produtos (GET /products). Não dá para usar o
+// MAX(updatedAt) do banco: a exclusão de um produto não deixa rastro lá. Então
+// cada gravação de produto ou categoria, depois do commit, grava o relógio do
+// banco na linha de tb_catalog_version, a mesma para todas as instâncias e que
+// sobrevive a reinícios.
+// A listagem não lê o banco: o modified_at fica em memória, atualizado pelo
+// touch() desta instância e relido a cada SETTLE para pegar as gravações das
+// outras.
+// O HTTP trabalha com segundos e o Last-Modified não pode estar no futuro. Um
+// valor visto há menos de SETTLE ainda pode ganhar mudanças no mesmo segundo
+// (ou aglutinadas na última gravação), então a resposta sai sem Last-Modified
+// até ele assentar, e nunca há 304 para uma versão que mudou depois.
+@Component
+public class ProductCatalogClock {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ProductCatalogClock.class);
+
+  private static final long ROW_ID = 1L;
+  // mudanças até um segundo depois da última gravação desta instância não
+  // gravam de novo (importações em massa disparam uma por produto)
+  private static final long COALESCE_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final long SETTLE_MILLIS = 2000;
+  private static final long SETTLE_NANOS = TimeUnit.MILLISECONDS.toNanos(SETTLE_MILLIS);
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  // chamado depois do commit: a transação terminada ainda pode estar presa à thread
+  private TransactionTemplate requiresNew;
+  private final AtomicLong lastWrite = new AtomicLong(System.nanoTime() - COALESCE_NANOS);
+  private volatile Version version = new Version(null, System.nanoTime());
+
+  @PostConstruct
+  public void init() {
+    requiresNew = new TransactionTemplate(transactionManager);
+    requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void createRow() {
+    Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_catalog_version WHERE id = ?",
+        Integer.class, ROW_ID);
+    if (rows == 0) {
+      write();
+    }
+    refresh();
+  }
+
+  // null enquanto a última alteração não assentou: sem Last-Modified nem 304
+  public Instant lastModified() {
+    Version current = version;
+    if (current.modifiedAt == null || System.nanoTime() - current.seenAt < SETTLE_NANOS) {
+      return null;
+    }
+    // relógio do banco adiantado em relação ao desta instância
+    Instant now = Instant.now();
+    Instant modifiedAt = current.modifiedAt.isAfter(now) ? now : current.modifiedAt;
+    return modifiedAt.truncatedTo(ChronoUnit.SECONDS);
+  }
+
+  public void touch() {
+    long now = System.nanoTime();
+    long last = lastWrite.get();
+    if (now - last < COALESCE_NANOS || !lastWrite.compareAndSet(last, now)) {
+      // a mudança aglutinada também reinicia o prazo para assentar
+      version = new Version(version.modifiedAt, now);
+      return;
+    }
+    try {
+      write();
+      refresh();
+    } catch (DataAccessException e) {
+      // a alteração já teve commit; a próxima tenta de novo
+      lastWrite.compareAndSet(now, now - COALESCE_NANOS);
+      version = new Version(version.modifiedAt, now);
+      LOG.warn("Could not record catalog change", e);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    touch();
+  }
+
+  // gravações de outras instâncias
+  @Scheduled(fixedDelay = SETTLE_MILLIS, initialDelay = SETTLE_MILLIS)
+  public void poll() {
+    try {
+      refresh();
+    } catch (DataAccessException e) {
+      LOG.warn("Could not read catalog version", e);
+    }
+  }
+
+  private void refresh() {
+    List<Instant> rows = jdbcTemplate.query("SELECT modified_at FROM tb_catalog_version WHERE id = ?",
+        (rs, rowNum) -> toInstant(rs.getTimestamp(1)), ROW_ID);
+    Instant modifiedAt = rows.isEmpty() ? null : rows.get(0);
+    Version current = version;
+    if (!Objects.equals(modifiedAt, current.modifiedAt)) {
+      version = new Version(modifiedAt, System.nanoTime());
+    }
+  }
+
+  private void write() {
+    int updated = requiresNew.execute(status -> jdbcTemplate.update(
+        "UPDATE tb_catalog_version SET modified_at = CURRENT_TIMESTAMP WHERE id = ?", ROW_ID));
+    if (updated == 0) {
+      try {
+        requiresNew.executeWithoutResult(status -> jdbcTemplate.update(
+            "INSERT INTO tb_catalog_version (id, modified_at) VALUES (?, CURRENT_TIMESTAMP)", ROW_ID));
+      } catch (DuplicateKeyException e) {
+        // outra instância criou a linha ao mesmo tempo, já com o relógio atual
+      }
+    }
+  }
+
+  private static Instant toInstant(Timestamp timestamp) {
+    return timestamp == null ? null : timestamp.toInstant();
+  }
+
+  // modified_at lido do banco e quando esta instância o viu mudar (nanoTime)
+  private static class Version {
+    private final Instant modifiedAt;
+    private final long seenAt;
+
+    Version(Instant modifiedAt, long seenAt) {
+      this.modifiedAt = modifiedAt;
+      this.seenAt = seenAt;
+    }
+  }
+}
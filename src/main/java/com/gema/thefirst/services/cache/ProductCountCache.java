@@ -0,0 +1,140 @@
+package com.gema.thefirst.services.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+// Cache dos totais da listagem de produtos pelo banco (o count com o mesmo LIKE
+// da página), por termo normalizado e filtro de categorias. Cada total guarda a
+// geração do catálogo em que foi contado; uma gravação de produto avança a
+// geração. Total de geração antiga é devolvido como estimado e recontado em
+// segundo plano (uma recontagem por chave), sem segurar o pedido.
+@Component
+public class ProductCountCache {
+
+  @Value("${cache.product-count.max-size}")
+  private long maxSize;
+
+  @Value("${cache.product-count.ttl}")
+  private Duration ttl;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final AtomicLong generation = new AtomicLong();
+  private LoadingCache<Key, Entry> cache;
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build(this::load);
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "product_counts");
+  }
+
+  // categoryIds vazio não filtra; minMatches como em searchByNameAndCategories
+  public Count get(String name, Collection<Long> categoryIds, long minMatches) {
+    Key key = new Key(name, categoryIds, minMatches);
+    Entry entry = cache.get(key);
+    if (entry.generation == generation.get()) {
+      return new Count(entry.count, true);
+    }
+    cache.refresh(key);
+    return new Count(entry.count, false);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    generation.incrementAndGet();
+  }
+
+  private Entry load(Key key) {
+    // geração lida antes do count: uma gravação no meio deixa o total já velho
+    long current = generation.get();
+    long count = key.categoryIds.isEmpty()
+        ? productRepository.countByName(key.name)
+        : productRepository.countByNameAndCategories(key.name, key.categoryIds, key.minMatches);
+    return new Entry(count, current);
+  }
+
+  public static class Count {
+    private final long total;
+    private final boolean exact;
+
+    Count(long total, boolean exact) {
+      this.total = total;
+      this.exact = exact;
+    }
+
+    public long getTotal() {
+      return total;
+    }
+
+    public boolean isExact() {
+      return exact;
+    }
+  }
+
+  private static class Entry {
+    private final long count;
+    private final long generation;
+
+    Entry(long count, long generation) {
+      this.count = count;
+      this.generation = generation;
+    }
+  }
+
+  // o LIKE já ignora maiúsculas e minúsculas, então "TV" e "tv" são a mesma chave
+  private static class Key {
+    private final String name;
+    private final SortedSet<Long> categoryIds;
+    private final long minMatches;
+
+    Key(String name, Collection<Long> categoryIds, long minMatches) {
+      this.name = name.toLowerCase(Locale.ROOT);
+      this.categoryIds = new TreeSet<>(categoryIds);
+      this.minMatches = minMatches;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o)
+        return true;
+      if (o == null || getClass() != o.getClass())
+        return false;
+
+      Key key = (Key) o;
+
+      return minMatches == key.minMatches && name.equals(key.name) && categoryIds.equals(key.categoryIds);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, categoryIds, minMatches);
+    }
+  }
+}
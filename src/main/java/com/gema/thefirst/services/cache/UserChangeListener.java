@@ -0,0 +1,46 @@
+package com.gema.thefirst.services.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gema.thefirst.entities.Role;
+import com.gema.thefirst.entities.User;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Listener JPA de User e Role que invalida o UserDetailsCache (senha, e-mail ou
+// perfis alterados). @Lazy pelo mesmo motivo do CategoryChangeListener.
+// Invalida na hora e de novo depois do commit, para que um login no meio da
+// transação não deixe a senha antiga no cache. Um perfil renomeado ou
+// removido vale para vários usuários, então esvazia o cache todo.
+public class UserChangeListener {
+
+  @Lazy
+  @Autowired
+  private UserDetailsCache userDetailsCache;
+
+  @PostUpdate
+  @PostRemove
+  public void onChange(Object entity) {
+    evict(entity);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          evict(entity);
+        }
+      });
+    }
+  }
+
+  private void evict(Object entity) {
+    if (entity instanceof User user) {
+      userDetailsCache.evict(user.getId(), user.getEmail());
+    } else if (entity instanceof Role) {
+      userDetailsCache.evictAll();
+    }
+  }
+}
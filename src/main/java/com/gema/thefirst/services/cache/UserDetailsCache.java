@@ -0,0 +1,80 @@
+package com.gema.thefirst.services.cache;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import com.gema.thefirst.projections.UserDetailsProjection;
+import com.gema.thefirst.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+// Cache das credenciais e perfis lidos no login (grant password), por e-mail:
+// o resultado da junção tb_user/tb_user_role/tb_role, uma linha por perfil.
+// Picos de login do mesmo usuário (app reabrindo, vários dispositivos) viram
+// uma consulta por TTL. O UserChangeListener invalida o usuário quando ele ou
+// um perfil é gravado pelo JPA, e o UserRolesChangeListener quando só a coleção
+// de perfis de um User muda. E-mail inexistente não fica no cache.
+// A invalidação é local: com várias instâncias, as outras só veem a mudança
+// quando a entrada expira, em até cache.user-details.ttl (o mesmo vale para
+// gravações feitas por fora do JPA).
+// Estatísticas em /actuator/metrics/cache.gets?tag=cache:user_details.
+@Component
+public class UserDetailsCache {
+
+  @Value("${cache.user-details.max-size}")
+  private long maxSize;
+
+  @Value("${cache.user-details.ttl}")
+  private Duration ttl;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private LoadingCache<String, List<UserDetailsProjection>> cache;
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build(this::load);
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "user_details");
+  }
+
+  public List<UserDetailsProjection> get(String email) {
+    List<UserDetailsProjection> result = cache.get(email);
+    if (result == null) {
+      throw new UsernameNotFoundException("User not found");
+    }
+    return result;
+  }
+
+  // pelo id também, para pegar a entrada do e-mail antigo quando ele muda
+  public void evict(Long userId, String email) {
+    cache.invalidate(email);
+    cache.asMap().values().removeIf(rows -> rows.get(0).getId().equals(userId));
+  }
+
+  public void evictAll() {
+    cache.invalidateAll();
+  }
+
+  private List<UserDetailsProjection> load(String email) {
+    List<UserDetailsProjection> result = userRepository.searchUserAndRolesByEmail(email);
+    // null não é guardado pelo Caffeine
+    return result.isEmpty() ? null : List.copyOf(result);
+  }
+}
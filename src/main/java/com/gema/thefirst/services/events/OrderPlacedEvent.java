@@ -0,0 +1,24 @@
+package com.gema.thefirst.services.events;
+
+import java.util.Map;
+
+// Publicado pelo OrderService quando um pedido é gravado, com a quantidade
+// pedida de cada produto. Usado para a popularidade das sugestões de busca.
+public class OrderPlacedEvent {
+
+  private final Long orderId;
+  private final Map<Long, Integer> quantities;
+
+  public OrderPlacedEvent(Long orderId, Map<Long, Integer> quantities) {
+    this.orderId = orderId;
+    this.quantities = quantities;
+  }
+
+  public Long getOrderId() {
+    return orderId;
+  }
+
+  public Map<Long, Integer> getQuantities() {
+    return quantities;
+  }
+}
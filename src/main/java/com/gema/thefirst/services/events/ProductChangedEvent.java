@@ -0,0 +1,59 @@
+package com.gema.thefirst.services.events;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.gema.thefirst.entities.Category;
+import com.gema.thefirst.entities.Product;
+
+// Publicado pelo ProductService a cada escrita no catálogo. Os ouvintes
+// (índices e caches em memória) reagem depois do commit da transação.
+public class ProductChangedEvent {
+
+  public enum Type {
+    SAVED, DELETED
+  }
+
+  private final Type type;
+  private final Long id;
+  private final String name;
+  private final Double price;
+  private final Set<Long> categoryIds;
+
+  private ProductChangedEvent(Type type, Long id, String name, Double price, Set<Long> categoryIds) {
+    this.type = type;
+    this.id = id;
+    this.name = name;
+    this.price = price;
+    this.categoryIds = categoryIds;
+  }
+
+  public static ProductChangedEvent saved(Product entity) {
+    Set<Long> categoryIds = entity.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+    return new ProductChangedEvent(Type.SAVED, entity.getId(), entity.getName(), entity.getPrice(), categoryIds);
+  }
+
+  public static ProductChangedEvent deleted(Long id) {
+    return new ProductChangedEvent(Type.DELETED, id, null, null, Set.of());
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Double getPrice() {
+    return price;
+  }
+
+  public Set<Long> getCategoryIds() {
+    return categoryIds;
+  }
+}
@@ -0,0 +1,7 @@
+package com.gema.thefirst.services.exceptions;
+
+public class BadRequestException extends RuntimeException {
+  public BadRequestException(String msg) {
+    super(msg);
+  }
+}
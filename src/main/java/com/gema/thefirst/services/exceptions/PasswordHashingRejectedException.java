@@ -0,0 +1,9 @@
+package com.gema.thefirst.services.exceptions;
+
+// fila de hash de senhas cheia; sem stack trace pelo mesmo motivo do
+// ResourceNotFoundException: numa onda de logins ela sai aos milhares
+public class PasswordHashingRejectedException extends RuntimeException {
+  public PasswordHashingRejectedException(String msg) {
+    super(msg, null, false, false);
+  }
+}
@@ -1,7 +1,9 @@
 package com.gema.thefirst.services.exceptions;
 
+// sem stack trace: o handler só usa a mensagem, e 404 em massa (IDs
+// inexistentes) não deve pagar a captura da pilha a cada pedido
 public class ResourceNotFoundException extends RuntimeException {
   public ResourceNotFoundException(String msg) {
-    super(msg);
+    super(msg, null, false, false);
   }
 }
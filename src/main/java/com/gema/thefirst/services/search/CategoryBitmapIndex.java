@@ -0,0 +1,161 @@
+package com.gema.thefirst.services.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.gema.thefirst.projections.ProductCategoryProjection;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+
+// Um RoaringBitmap de IDs de produto por categoria, espelhando tb_product_category.
+// Filtrar por categorias vira OR/AND de bitmaps em memória, sem join no banco.
+// Montado na subida e mantido pelos ProductChangedEvent, como o índice de nomes.
+// Com um ID acima de Integer.MAX_VALUE deixa de atender, e o filtro vai ao banco.
+@Component
+public class CategoryBitmapIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CategoryBitmapIndex.class);
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+
+  private final List<ProductChangedEvent> pending = new ArrayList<>();
+  private volatile boolean building;
+  private volatile boolean ready;
+  private volatile boolean overflow;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void build() {
+    lock.writeLock().lock();
+    try {
+      building = true;
+      ready = false;
+      overflow = false;
+      byCategory.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    long start = System.nanoTime();
+    try (Stream<ProductCategoryProjection> rows = productRepository.streamAllCategories()) {
+      rows.forEach(row -> {
+        lock.writeLock().lock();
+        try {
+          if (row.getProductId() > Integer.MAX_VALUE) {
+            overflow = true;
+          } else {
+            bitmap(row.getCategoryId()).add(row.getProductId().intValue());
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+      });
+    }
+
+    lock.writeLock().lock();
+    try {
+      for (ProductChangedEvent event : pending) {
+        apply(event);
+      }
+      pending.clear();
+      building = false;
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    LOG.info("Category bitmap index built: {} categories in {} ms", byCategory.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    lock.writeLock().lock();
+    try {
+      if (building) {
+        pending.add(event);
+      }
+      apply(event);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // IDs dos produtos em qualquer uma (matchAll = false) ou em todas as
+  // categorias; Optional vazio enquanto o índice não estiver pronto
+  public Optional<RoaringBitmap> filter(Collection<Long> categoryIds, boolean matchAll) {
+    if (!ready || overflow) {
+      return Optional.empty();
+    }
+    lock.readLock().lock();
+    try {
+      List<RoaringBitmap> bitmaps = new ArrayList<>();
+      for (Long categoryId : categoryIds) {
+        RoaringBitmap bitmap = byCategory.get(categoryId);
+        if (bitmap == null) {
+          if (matchAll) {
+            return Optional.of(new RoaringBitmap());
+          }
+          continue;
+        }
+        bitmaps.add(bitmap);
+      }
+      if (bitmaps.isEmpty()) {
+        return Optional.of(new RoaringBitmap());
+      }
+      if (!matchAll) {
+        return Optional.of(FastAggregation.or(bitmaps.iterator()));
+      }
+      // começa pelo menor bitmap para a interseção encolher logo
+      bitmaps.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+      RoaringBitmap result = bitmaps.get(0).clone();
+      for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+        result.and(bitmaps.get(i));
+      }
+      return Optional.of(result);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void apply(ProductChangedEvent event) {
+    if (event.getId() > Integer.MAX_VALUE) {
+      overflow = overflow || event.getType() == ProductChangedEvent.Type.SAVED;
+      return;
+    }
+    int key = event.getId().intValue();
+    // as categorias anteriores do produto não vêm no evento; são poucas
+    // categorias, então basta tirar o ID de todas
+    byCategory.values().forEach(bitmap -> bitmap.remove(key));
+    if (event.getType() == ProductChangedEvent.Type.SAVED) {
+      for (Long categoryId : event.getCategoryIds()) {
+        bitmap(categoryId).add(key);
+      }
+    }
+  }
+
+  private RoaringBitmap bitmap(Long categoryId) {
+    return byCategory.computeIfAbsent(categoryId, id -> new RoaringBitmap());
+  }
+}
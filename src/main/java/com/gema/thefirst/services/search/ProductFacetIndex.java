@@ -0,0 +1,261 @@
+package com.gema.thefirst.services.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.gema.thefirst.projections.ProductCategoryProjection;
+import com.gema.thefirst.projections.ProductPriceProjection;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+
+// Visão colunar do catálogo para as facetas da busca: um array de preços e um
+// de categorias, os dois indexados pelo ID do produto. Contar as facetas de um
+// conjunto de IDs é uma única passada sobre o bitmap, só com acesso a array.
+// As categorias guardam um índice denso (0..n) no lugar do ID, para contar
+// direto num int[].
+// Com um ID acima de Integer.MAX_VALUE deixa de atender até a próxima montagem.
+@Component
+public class ProductFacetIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ProductFacetIndex.class);
+  private static final int[] NO_CATEGORIES = new int[0];
+
+  // limites inferiores das faixas de preço; a última faixa não tem teto
+  @Value("${facets.price-buckets}")
+  private double[] priceBuckets;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private double[] prices = new double[0];
+  private int[][] categories = new int[0][];
+  private final Map<Long, Integer> categoryIndex = new HashMap<>();
+  private final List<Long> categoryIds = new ArrayList<>();
+
+  private final List<ProductChangedEvent> pending = new ArrayList<>();
+  private volatile boolean building;
+  private volatile boolean ready;
+  private volatile boolean overflow;
+
+  @PostConstruct
+  public void init() {
+    Arrays.sort(priceBuckets);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void build() {
+    lock.writeLock().lock();
+    try {
+      building = true;
+      ready = false;
+      overflow = false;
+      prices = new double[0];
+      categories = new int[0][];
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    long start = System.nanoTime();
+    try (Stream<ProductPriceProjection> rows = productRepository.streamAllPrices()) {
+      rows.forEach(row -> {
+        lock.writeLock().lock();
+        try {
+          if (row.getId() > Integer.MAX_VALUE) {
+            overflow = true;
+            return;
+          }
+          int key = row.getId().intValue();
+          ensureCapacity(key);
+          prices[key] = row.getPrice() == null ? Double.NaN : row.getPrice();
+          categories[key] = NO_CATEGORIES;
+        } finally {
+          lock.writeLock().unlock();
+        }
+      });
+    }
+    try (Stream<ProductCategoryProjection> rows = productRepository.streamAllCategories()) {
+      rows.forEach(row -> {
+        lock.writeLock().lock();
+        try {
+          if (row.getProductId() > Integer.MAX_VALUE) {
+            return;
+          }
+          int key = row.getProductId().intValue();
+          if (key < categories.length && categories[key] != null) {
+            int[] current = categories[key];
+            int[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = categoryIndex(row.getCategoryId());
+            categories[key] = next;
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+      });
+    }
+
+    lock.writeLock().lock();
+    try {
+      for (ProductChangedEvent event : pending) {
+        apply(event);
+      }
+      pending.clear();
+      building = false;
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    LOG.info("Product facet index built: {} slots, {} categories in {} ms", prices.length, categoryIds.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    lock.writeLock().lock();
+    try {
+      if (building) {
+        pending.add(event);
+      }
+      apply(event);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public double[] getPriceBuckets() {
+    return priceBuckets.clone();
+  }
+
+  // contagens por categoria (ID -> quantidade, só as não vazias) e por faixa de
+  // preço (mesma ordem de getPriceBuckets) dos produtos em ids
+  public Optional<Counts> count(RoaringBitmap ids, boolean byCategory, boolean byPrice) {
+    if (!ready || overflow) {
+      return Optional.empty();
+    }
+    lock.readLock().lock();
+    try {
+      int[] categoryCounts = new int[categoryIds.size()];
+      long[] priceCounts = new long[priceBuckets.length];
+      double[] prices = this.prices;
+      int[][] categories = this.categories;
+      // lê os IDs em lotes do bitmap em vez de um callback por ID
+      int[] batch = new int[256];
+      BatchIterator iterator = ids.getBatchIterator();
+      while (iterator.hasNext()) {
+        int size = iterator.nextBatch(batch);
+        for (int i = 0; i < size; i++) {
+          int id = batch[i];
+          if (id >= prices.length || categories[id] == null) {
+            continue;
+          }
+          if (byCategory) {
+            for (int category : categories[id]) {
+              categoryCounts[category]++;
+            }
+          }
+          if (byPrice && !Double.isNaN(prices[id])) {
+            priceCounts[bucket(prices[id])]++;
+          }
+        }
+      }
+
+      Map<Long, Long> byCategoryId = new LinkedHashMap<>();
+      if (byCategory) {
+        for (int i = 0; i < categoryCounts.length; i++) {
+          if (categoryCounts[i] > 0) {
+            byCategoryId.put(categoryIds.get(i), (long) categoryCounts[i]);
+          }
+        }
+      }
+      return Optional.of(new Counts(byCategoryId, byPrice ? priceCounts : null));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private int bucket(double price) {
+    int position = Arrays.binarySearch(priceBuckets, price);
+    if (position >= 0) {
+      return position;
+    }
+    // abaixo do primeiro limite conta na primeira faixa
+    return Math.max(0, -position - 2);
+  }
+
+  private void apply(ProductChangedEvent event) {
+    if (event.getId() > Integer.MAX_VALUE) {
+      overflow = overflow || event.getType() == ProductChangedEvent.Type.SAVED;
+      return;
+    }
+    int key = event.getId().intValue();
+    if (event.getType() == ProductChangedEvent.Type.DELETED) {
+      if (key < categories.length) {
+        categories[key] = null;
+        prices[key] = Double.NaN;
+      }
+      return;
+    }
+    ensureCapacity(key);
+    prices[key] = event.getPrice() == null ? Double.NaN : event.getPrice();
+    categories[key] = event.getCategoryIds().stream().mapToInt(this::categoryIndex).toArray();
+  }
+
+  private int categoryIndex(Long categoryId) {
+    return categoryIndex.computeIfAbsent(categoryId, id -> {
+      categoryIds.add(id);
+      return categoryIds.size() - 1;
+    });
+  }
+
+  // os arrays crescem em dobro, como um ArrayList; posições vazias ficam null
+  private void ensureCapacity(int key) {
+    if (key < prices.length) {
+      return;
+    }
+    int size = Math.max(key + 1, prices.length * 2);
+    int previous = prices.length;
+    prices = Arrays.copyOf(prices, size);
+    Arrays.fill(prices, previous, size, Double.NaN);
+    categories = Arrays.copyOf(categories, size);
+  }
+
+  public static class Counts {
+    private final Map<Long, Long> byCategory;
+    private final long[] byPrice;
+
+    Counts(Map<Long, Long> byCategory, long[] byPrice) {
+      this.byCategory = byCategory;
+      this.byPrice = byPrice;
+    }
+
+    public Map<Long, Long> getByCategory() {
+      return byCategory;
+    }
+
+    public long[] getByPrice() {
+      return byPrice;
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.gema.thefirst.services.search;
+
+import java.util.Optional;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+// Motor de busca por nome de produto. Devolve apenas os IDs da pagina pedida,
+// já ordenados; quem chama e responsável por carregar as entidades.
+public interface ProductSearchEngine {
+
+  // Optional vazio quando o motor não consegue atender (índice ainda sendo
+  // montado, ID acima de Integer.MAX_VALUE ou ordenação não suportada); nesse
+  // caso use a consulta no banco.
+  // O filtro, quando presente, restringe os IDs candidatos (ex.: categorias);
+  // nome vazio com filtro lista todos os IDs do filtro.
+  Optional<Page<Long>> search(String name, RoaringBitmap filter, Pageable pageable);
+
+  // todos os IDs que casam com o nome (e o filtro), sem paginação; usado para
+  // calcular as facetas da busca
+  Optional<RoaringBitmap> matching(String name, RoaringBitmap filter);
+
+  void index(Long id, String name);
+
+  void remove(Long id);
+}
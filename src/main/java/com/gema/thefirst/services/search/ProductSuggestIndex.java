@@ -0,0 +1,417 @@
+package com.gema.thefirst.services.search;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.gema.thefirst.dto.ProductSuggestionDTO;
+import com.gema.thefirst.projections.ProductNameProjection;
+import com.gema.thefirst.projections.ProductSalesProjection;
+import com.gema.thefirst.repositories.OrderItemRepository;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.events.OrderPlacedEvent;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+
+// Trie de nomes de produto para o autocomplete. Os nomes são normalizados (sem
+// acento, minúsculos) e entram pelo nome inteiro e por cada palavra, para que
+// "gam" complete "PC Gamer". Cada nó guarda as K melhores sugestões da sua
+// subárvore, então responder um prefixo é só descer a trie e devolver a lista
+// pronta. A popularidade é o total de unidades vendidas do produto.
+//
+// Os nós só vão até MAX_DEPTH caracteres; chaves mais longas ficam na lista do
+// último nó e prefixos maiores que isso filtram essa lista, o que limita a
+// memória sem perder prefixos longos.
+//
+// Leituras não pegam lock: os campos dos nós são arrays imutáveis trocados por
+// inteiro. As escritas são serializadas e recalculam só o caminho da chave.
+@Component
+public class ProductSuggestIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ProductSuggestIndex.class);
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SPACES = Pattern.compile("\\s+");
+  private static final int MAX_DEPTH = 8;
+  private static final Entry[] NO_ENTRIES = new Entry[0];
+  private static final Comparator<Entry> RANKING = Comparator.comparingLong((Entry e) -> e.weight).reversed()
+      .thenComparingInt(e -> e.name.length())
+      .thenComparing(e -> e.name)
+      .thenComparingLong(e -> e.id);
+
+  @Value("${suggest.top-k}")
+  private int topK;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderItemRepository orderItemRepository;
+
+  private volatile Node root = new Node();
+
+  // estado de quem escreve, sempre acessado dentro de synchronized (this)
+  private final Map<Long, Indexed> products = new HashMap<>();
+  private final Map<Long, Long> sales = new HashMap<>();
+  private final List<Object> pending = new ArrayList<>();
+  private boolean building;
+  private volatile boolean ready;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void build() {
+    Node fresh = new Node();
+    synchronized (this) {
+      building = true;
+      ready = false;
+      products.clear();
+      sales.clear();
+      for (ProductSalesProjection row : orderItemRepository.sumQuantityByProduct()) {
+        sales.put(row.getProductId(), row.getQuantity());
+      }
+    }
+
+    long start = System.nanoTime();
+    try (Stream<ProductNameProjection> rows = productRepository.streamAllNames()) {
+      rows.forEach(row -> {
+        synchronized (this) {
+          put(fresh, row.getId(), row.getName(), false);
+        }
+      });
+    }
+
+    synchronized (this) {
+      freeze(fresh);
+      root = fresh;
+      for (Object event : pending) {
+        apply(event);
+      }
+      pending.clear();
+      building = false;
+      ready = true;
+    }
+    LOG.info("Product suggest index built: {} products in {} ms", products.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onProductChanged(ProductChangedEvent event) {
+    onEvent(event);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onOrderPlaced(OrderPlacedEvent event) {
+    onEvent(event);
+  }
+
+  // teto do limit em suggest
+  public int getTopK() {
+    return topK;
+  }
+
+  // até limit sugestões para o prefixo, da mais para a menos popular
+  public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+    String term = SPACES.matcher(fold(prefix)).replaceAll(" ").stripLeading();
+    if (!ready || term.isEmpty()) {
+      return List.of();
+    }
+    Node node = root;
+    for (int i = 0; i < Math.min(term.length(), MAX_DEPTH) && node != null; i++) {
+      node = node.child(term.charAt(i));
+    }
+    if (node == null) {
+      return List.of();
+    }
+    int size = Math.min(limit, topK);
+    if (term.length() <= MAX_DEPTH) {
+      Entry[] top = node.top;
+      List<ProductSuggestionDTO> result = new ArrayList<>(Math.min(size, top.length));
+      for (int i = 0; i < top.length && i < size; i++) {
+        result.add(new ProductSuggestionDTO(top[i].id, top[i].name));
+      }
+      return result;
+    }
+    List<Entry> matches = new ArrayList<>();
+    for (Entry entry : node.entries) {
+      if (entry.key.startsWith(term)) {
+        matches.add(entry);
+      }
+    }
+    return best(matches, size).stream().map(x -> new ProductSuggestionDTO(x.id, x.name)).toList();
+  }
+
+  private void onEvent(Object event) {
+    if (building) {
+      pending.add(event);
+    } else if (ready) {
+      apply(event);
+    }
+  }
+
+  private void apply(Object event) {
+    if (event instanceof ProductChangedEvent changed) {
+      remove(changed.getId());
+      if (changed.getType() == ProductChangedEvent.Type.SAVED) {
+        put(root, changed.getId(), changed.getName(), true);
+      }
+    } else if (event instanceof OrderPlacedEvent placed) {
+      placed.getQuantities().forEach((id, quantity) -> {
+        sales.merge(id, quantity.longValue(), Long::sum);
+        Indexed indexed = products.get(id);
+        if (indexed != null) {
+          remove(id);
+          put(root, id, indexed.name, true);
+        }
+      });
+    }
+  }
+
+  private void put(Node root, Long id, String name, boolean recompute) {
+    if (id == null || name == null) {
+      return;
+    }
+    long weight = sales.getOrDefault(id, 0L);
+    Set<String> keys = keys(name);
+    for (String key : keys) {
+      Entry entry = new Entry(id, key, name, weight);
+      List<Node> path = new ArrayList<>();
+      Node node = root;
+      path.add(node);
+      for (int i = 0; i < Math.min(key.length(), MAX_DEPTH); i++) {
+        node = node.childOrCreate(key.charAt(i));
+        path.add(node);
+      }
+      if (recompute) {
+        node.entries = append(node.entries, entry);
+        for (int i = path.size() - 1; i >= 0; i--) {
+          recompute(path.get(i));
+        }
+      } else {
+        node.stage(entry);
+      }
+    }
+    products.put(id, new Indexed(name, keys));
+  }
+
+  private void remove(Long id) {
+    Indexed indexed = products.remove(id);
+    if (indexed == null) {
+      return;
+    }
+    for (String key : indexed.keys) {
+      List<Node> path = new ArrayList<>();
+      Node node = root;
+      path.add(node);
+      for (int i = 0; i < Math.min(key.length(), MAX_DEPTH) && node != null; i++) {
+        node = node.child(key.charAt(i));
+        path.add(node);
+      }
+      if (node == null) {
+        continue;
+      }
+      node.entries = Arrays.stream(node.entries).filter(x -> !x.id.equals(id)).toArray(Entry[]::new);
+      for (int i = path.size() - 1; i >= 0; i--) {
+        Node current = path.get(i);
+        if (i > 0 && current.isEmpty()) {
+          path.get(i - 1).removeChild(key.charAt(i - 1));
+        }
+        recompute(current);
+      }
+    }
+  }
+
+  // fecha a montagem: entradas acumuladas viram arrays e os top-K são
+  // calculados de baixo para cima uma única vez
+  private void freeze(Node root) {
+    Deque<Node> stack = new ArrayDeque<>();
+    List<Node> order = new ArrayList<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      Node node = stack.pop();
+      order.add(node);
+      for (Node child : node.children.nodes) {
+        stack.push(child);
+      }
+    }
+    for (int i = order.size() - 1; i >= 0; i--) {
+      Node node = order.get(i);
+      node.unstage();
+      recompute(node);
+    }
+  }
+
+  // o top-K de um nó sai das suas próprias entradas e do top-K dos filhos
+  private void recompute(Node node) {
+    List<Entry> candidates = new ArrayList<>(Arrays.asList(node.entries));
+    for (Node child : node.children.nodes) {
+      candidates.addAll(Arrays.asList(child.top));
+    }
+    node.top = best(candidates, topK).toArray(NO_ENTRIES);
+  }
+
+  // melhores entradas, uma por produto
+  private static List<Entry> best(List<Entry> candidates, int limit) {
+    candidates.sort(RANKING);
+    List<Entry> result = new ArrayList<>(limit);
+    Set<Long> seen = new HashSet<>();
+    for (Entry entry : candidates) {
+      if (result.size() == limit) {
+        break;
+      }
+      if (seen.add(entry.id)) {
+        result.add(entry);
+      }
+    }
+    return result;
+  }
+
+  // o nome inteiro e o restante dele a partir de cada palavra
+  private static Set<String> keys(String name) {
+    String folded = SPACES.matcher(fold(name)).replaceAll(" ").strip();
+    Set<String> keys = new LinkedHashSet<>();
+    if (folded.isEmpty()) {
+      return keys;
+    }
+    keys.add(folded);
+    for (int i = 1; i < folded.length(); i++) {
+      if (!Character.isLetterOrDigit(folded.charAt(i - 1)) && Character.isLetterOrDigit(folded.charAt(i))) {
+        keys.add(folded.substring(i));
+      }
+    }
+    return keys;
+  }
+
+  private static String fold(String value) {
+    String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+    return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+  }
+
+  private static Entry[] append(Entry[] entries, Entry entry) {
+    Entry[] result = Arrays.copyOf(entries, entries.length + 1);
+    result[entries.length] = entry;
+    return result;
+  }
+
+  private static class Entry {
+    private final Long id;
+    private final String key;
+    private final String name;
+    private final long weight;
+
+    Entry(Long id, String key, String name, long weight) {
+      this.id = id;
+      this.key = key;
+      this.name = name;
+      this.weight = weight;
+    }
+  }
+
+  private static class Indexed {
+    private final String name;
+    private final Set<String> keys;
+
+    Indexed(String name, Set<String> keys) {
+      this.name = name;
+      this.keys = keys;
+    }
+  }
+
+  private static class Children {
+    private static final Children EMPTY = new Children(new char[0], new Node[0]);
+
+    private final char[] labels;
+    private final Node[] nodes;
+
+    Children(char[] labels, Node[] nodes) {
+      this.labels = labels;
+      this.nodes = nodes;
+    }
+  }
+
+  private static class Node {
+    private volatile Children children = Children.EMPTY;
+    private volatile Entry[] entries = NO_ENTRIES;
+    private volatile Entry[] top = NO_ENTRIES;
+    // entradas acumuladas durante a montagem, antes do freeze
+    private List<Entry> staged;
+
+    Node child(char label) {
+      Children current = children;
+      int position = Arrays.binarySearch(current.labels, label);
+      return position >= 0 ? current.nodes[position] : null;
+    }
+
+    Node childOrCreate(char label) {
+      Children current = children;
+      int position = Arrays.binarySearch(current.labels, label);
+      if (position >= 0) {
+        return current.nodes[position];
+      }
+      int insertAt = -position - 1;
+      char[] labels = new char[current.labels.length + 1];
+      Node[] nodes = new Node[current.nodes.length + 1];
+      System.arraycopy(current.labels, 0, labels, 0, insertAt);
+      System.arraycopy(current.nodes, 0, nodes, 0, insertAt);
+      labels[insertAt] = label;
+      Node created = new Node();
+      nodes[insertAt] = created;
+      System.arraycopy(current.labels, insertAt, labels, insertAt + 1, current.labels.length - insertAt);
+      System.arraycopy(current.nodes, insertAt, nodes, insertAt + 1, current.nodes.length - insertAt);
+      children = new Children(labels, nodes);
+      return created;
+    }
+
+    void removeChild(char label) {
+      Children current = children;
+      int position = Arrays.binarySearch(current.labels, label);
+      if (position < 0) {
+        return;
+      }
+      char[] labels = new char[current.labels.length - 1];
+      Node[] nodes = new Node[current.nodes.length - 1];
+      System.arraycopy(current.labels, 0, labels, 0, position);
+      System.arraycopy(current.nodes, 0, nodes, 0, position);
+      System.arraycopy(current.labels, position + 1, labels, position, labels.length - position);
+      System.arraycopy(current.nodes, position + 1, nodes, position, nodes.length - position);
+      children = new Children(labels, nodes);
+    }
+
+    boolean isEmpty() {
+      return entries.length == 0 && children.nodes.length == 0;
+    }
+
+    void stage(Entry entry) {
+      if (staged == null) {
+        staged = new ArrayList<>();
+      }
+      staged.add(entry);
+    }
+
+    void unstage() {
+      if (staged != null) {
+        entries = staged.toArray(NO_ENTRIES);
+        staged = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,341 @@
+package com.gema.thefirst.services.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.gema.thefirst.projections.ProductNameProjection;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+
+// Índice invertido de trigramas sobre o nome dos produtos. Cada trigrama aponta
+// para um RoaringBitmap com os IDs que o contêm; uma busca por substring
+// intersecta os bitmaps dos trigramas do termo e confirma os candidatos no nome.
+// Mesma semântica do LIKE '%termo%' com UPPER usado em ProductRepository.
+// Os bitmaps são de int: com um ID acima de Integer.MAX_VALUE o índice deixa
+// de atender e as buscas vão ao banco.
+@Component
+public class TrigramProductSearchEngine implements ProductSearchEngine {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TrigramProductSearchEngine.class);
+  private static final int GRAM = 3;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Integer, String> names = new HashMap<>();
+  private final Map<String, RoaringBitmap> postings = new HashMap<>();
+  private final RoaringBitmap all = new RoaringBitmap();
+
+  // escritas que chegam enquanto o índice é montado são reaplicadas no final
+  private final List<ProductChangedEvent> pending = new ArrayList<>();
+  private volatile boolean building;
+  private volatile boolean ready;
+  private volatile boolean overflow;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void build() {
+    lock.writeLock().lock();
+    try {
+      building = true;
+      ready = false;
+      overflow = false;
+      names.clear();
+      postings.clear();
+      all.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    long start = System.nanoTime();
+    try (Stream<ProductNameProjection> rows = productRepository.streamAllNames()) {
+      rows.forEach(row -> {
+        lock.writeLock().lock();
+        try {
+          removeInternal(row.getId());
+          add(row.getId(), row.getName());
+        } finally {
+          lock.writeLock().unlock();
+        }
+      });
+    }
+
+    lock.writeLock().lock();
+    try {
+      for (ProductChangedEvent event : pending) {
+        apply(event);
+      }
+      pending.clear();
+      building = false;
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    LOG.info("Product search index built: {} products, {} trigrams in {} ms", all.getCardinality(),
+        postings.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    lock.writeLock().lock();
+    try {
+      if (building) {
+        pending.add(event);
+      }
+      apply(event);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Page<Long>> search(String name, RoaringBitmap filter, Pageable pageable) {
+    String term = normalize(name);
+    Comparator<Match> order = comparatorFor(pageable.getSort(), term.isEmpty());
+    if (!ready || overflow || order == null) {
+      return Optional.empty();
+    }
+
+    List<Match> matches = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      RoaringBitmap candidates = candidates(term);
+      if (filter != null) {
+        candidates = RoaringBitmap.and(candidates, filter);
+      }
+      if (term.isEmpty() && pageable.getSort().isUnsorted()) {
+        return Optional.of(pageInIdOrder(candidates, pageable));
+      }
+      candidates.forEach((int id) -> {
+        String indexed = names.get(id);
+        int position = indexed.indexOf(term);
+        if (position >= 0) {
+          matches.add(new Match(id, indexed, position));
+        }
+      });
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    matches.sort(order);
+    List<Long> ids = new ArrayList<>();
+    if (pageable.isPaged()) {
+      int from = (int) Math.min(pageable.getOffset(), matches.size());
+      int to = Math.min(from + pageable.getPageSize(), matches.size());
+      matches.subList(from, to).forEach(m -> ids.add((long) m.id));
+    } else {
+      matches.forEach(m -> ids.add((long) m.id));
+    }
+    return Optional.of(new PageImpl<>(ids, pageable, matches.size()));
+  }
+
+  @Override
+  public Optional<RoaringBitmap> matching(String name, RoaringBitmap filter) {
+    if (!ready || overflow) {
+      return Optional.empty();
+    }
+    String term = normalize(name);
+    lock.readLock().lock();
+    try {
+      RoaringBitmap candidates = candidates(term);
+      candidates = filter != null ? RoaringBitmap.and(candidates, filter) : candidates.clone();
+      if (term.isEmpty()) {
+        return Optional.of(candidates);
+      }
+      RoaringBitmap result = new RoaringBitmap();
+      candidates.forEach((int id) -> {
+        if (names.get(id).contains(term)) {
+          result.add(id);
+        }
+      });
+      return Optional.of(result);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // sem termo todo candidato casa e o bitmap já está em ordem de ID: a página
+  // sai direto por posição, sem montar e ordenar a lista de resultados
+  private static Page<Long> pageInIdOrder(RoaringBitmap candidates, Pageable pageable) {
+    int total = candidates.getCardinality();
+    int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), total) : 0;
+    int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), total) : total;
+    List<Long> ids = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      ids.add(Integer.toUnsignedLong(candidates.select(i)));
+    }
+    return new PageImpl<>(ids, pageable, total);
+  }
+
+  @Override
+  public void index(Long id, String name) {
+    lock.writeLock().lock();
+    try {
+      removeInternal(id);
+      add(id, name);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      removeInternal(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void apply(ProductChangedEvent event) {
+    removeInternal(event.getId());
+    if (event.getType() == ProductChangedEvent.Type.SAVED) {
+      add(event.getId(), event.getName());
+    }
+  }
+
+  private void add(Long id, String name) {
+    if (id == null || name == null) {
+      return;
+    }
+    if (id > Integer.MAX_VALUE) {
+      overflow = true;
+      return;
+    }
+    int key = id.intValue();
+    String normalized = normalize(name);
+    names.put(key, normalized);
+    all.add(key);
+    for (String gram : trigrams(normalized)) {
+      postings.computeIfAbsent(gram, g -> new RoaringBitmap()).add(key);
+    }
+  }
+
+  private void removeInternal(Long id) {
+    if (id == null || id > Integer.MAX_VALUE) {
+      return;
+    }
+    int key = id.intValue();
+    String previous = names.remove(key);
+    if (previous == null) {
+      return;
+    }
+    all.remove(key);
+    for (String gram : trigrams(previous)) {
+      RoaringBitmap bitmap = postings.get(gram);
+      if (bitmap != null) {
+        bitmap.remove(key);
+        if (bitmap.isEmpty()) {
+          postings.remove(gram);
+        }
+      }
+    }
+  }
+
+  // termos menores que um trigrama não têm como usar o índice: varrem os nomes
+  private RoaringBitmap candidates(String term) {
+    if (term.length() < GRAM) {
+      return all;
+    }
+    List<RoaringBitmap> lists = new ArrayList<>();
+    for (String gram : trigrams(term)) {
+      RoaringBitmap bitmap = postings.get(gram);
+      if (bitmap == null) {
+        return new RoaringBitmap();
+      }
+      lists.add(bitmap);
+    }
+    lists.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+    RoaringBitmap result = lists.get(0).clone();
+    for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+      result.and(lists.get(i));
+    }
+    return result;
+  }
+
+  private static Set<String> trigrams(String normalized) {
+    Set<String> grams = new HashSet<>();
+    for (int i = 0; i + GRAM <= normalized.length(); i++) {
+      grams.add(normalized.substring(i, i + GRAM));
+    }
+    return grams;
+  }
+
+  private static String normalize(String name) {
+    return name.toUpperCase(Locale.ROOT);
+  }
+
+  // sem ordenação explícita vale a relevância: começo do nome, começo de
+  // palavra, nomes mais curtos; sem termo não há relevância e vale o ID.
+  // Só ordena por propriedades que o índice conhece.
+  private static Comparator<Match> comparatorFor(Sort sort, boolean emptyTerm) {
+    if (sort.isUnsorted() && emptyTerm) {
+      return Comparator.comparingInt(m -> m.id);
+    }
+    if (sort.isUnsorted()) {
+      return Comparator.comparingInt(Match::rank)
+          .thenComparingInt(m -> m.name.length())
+          .thenComparingInt(m -> m.id);
+    }
+    Comparator<Match> result = null;
+    for (Sort.Order order : sort) {
+      Comparator<Match> next;
+      if (order.getProperty().equals("name")) {
+        next = Comparator.comparing((Match m) -> m.name);
+      } else if (order.getProperty().equals("id")) {
+        next = Comparator.comparingInt((Match m) -> m.id);
+      } else {
+        return null;
+      }
+      if (order.isDescending()) {
+        next = next.reversed();
+      }
+      result = (result == null) ? next : result.thenComparing(next);
+    }
+    return result.thenComparingInt(m -> m.id);
+  }
+
+  private static class Match {
+    private final int id;
+    private final String name;
+    private final int position;
+
+    Match(int id, String name, int position) {
+      this.id = id;
+      this.name = name;
+      this.position = position;
+    }
+
+    int rank() {
+      if (position == 0) {
+        return 0;
+      }
+      return Character.isLetterOrDigit(name.charAt(position - 1)) ? 2 : 1;
+    }
+  }
+}
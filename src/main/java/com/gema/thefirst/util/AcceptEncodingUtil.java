@@ -0,0 +1,58 @@
+package com.gema.thefirst.util;
+
+import java.util.Locale;
+
+// Negociação de gzip pelo Accept-Encoding (RFC 9110, seção 12.5.3): cada item
+// é "codificação;q=peso", q=0 recusa a codificação, "*" vale para as que não
+// foram citadas e x-gzip é sinônimo de gzip. Sem cabeçalho, nada de gzip.
+public final class AcceptEncodingUtil {
+
+  private AcceptEncodingUtil() {
+  }
+
+  // gzip só quando aceito com q > 0 e não menos preferido que um identity citado
+  public static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null || acceptEncoding.isBlank()) {
+      return false;
+    }
+    double gzip = -1;
+    double identity = -1;
+    double any = -1;
+    for (String item : acceptEncoding.split(",")) {
+      String[] parts = item.split(";");
+      String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+      if (coding.isEmpty()) {
+        continue;
+      }
+      double q = quality(parts);
+      switch (coding) {
+        case "gzip", "x-gzip" -> gzip = Math.max(gzip, q);
+        case "identity" -> identity = q;
+        case "*" -> any = q;
+        default -> {
+        }
+      }
+    }
+    if (gzip < 0) {
+      gzip = Math.max(any, 0);
+    }
+    // identity só disputa com o gzip quando o cliente lhe deu peso explícito
+    return gzip > 0 && gzip >= identity;
+  }
+
+  // q ausente vale 1; malformado ou fora de [0, 1] conta como recusa
+  private static double quality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String param = parts[i].trim();
+      if (param.length() > 1 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+        try {
+          double q = Double.parseDouble(param.substring(2).trim());
+          return q >= 0 && q <= 1 ? q : 0;
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+}
@@ -0,0 +1,35 @@
+package com.gema.thefirst.util;
+
+import java.util.List;
+
+// Usuário do token da requisição: id, e-mail e perfis, tirados só dos claims
+// do JWT (user_id, username e authorities), sem ir ao banco. Para os dados
+// completos do perfil, buscar o User pelo id.
+public class AuthenticatedUser {
+
+  private final Long id;
+  private final String username;
+  private final List<String> authorities;
+
+  public AuthenticatedUser(Long id, String username, List<String> authorities) {
+    this.id = id;
+    this.username = username;
+    this.authorities = authorities;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public List<String> getAuthorities() {
+    return authorities;
+  }
+
+  public boolean hasRole(String roleName) {
+    return authorities.contains(roleName);
+  }
+}
@@ -0,0 +1,56 @@
+package com.gema.thefirst.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// CSV no formato RFC 4180 linha a linha: campos separados por vírgula, aspas
+// duplas para campos com vírgula ou aspas ("" dentro de aspas). Campos com
+// quebra de linha não são suportados, já que a leitura é feita por linha.
+public final class CsvUtil {
+
+  private CsvUtil() {
+  }
+
+  public static List<String> parseLine(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          current.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          current.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(current.toString());
+        current.setLength(0);
+      } else {
+        current.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("Aspas não fechadas");
+    }
+    fields.add(current.toString());
+    return fields;
+  }
+
+  public static String formatField(String value) {
+    if (value == null) {
+      return "";
+    }
+    boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+        || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+    if (!needsQuotes) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
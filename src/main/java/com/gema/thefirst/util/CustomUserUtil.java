@@ -1,5 +1,7 @@
 package com.gema.thefirst.util;
 
+import java.util.List;
+
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -9,8 +11,20 @@ import org.springframework.stereotype.Component;
 public class CustomUserUtil {
 
   public String getLoggedUsername() {
+    return getLoggedJwt().getClaim("username");
+  }
+
+  // null em user_id: token emitido antes de o claim existir
+  public AuthenticatedUser getLoggedUser() {
+    Jwt jwt = getLoggedJwt();
+    Number id = jwt.getClaim("user_id");
+    List<String> authorities = jwt.getClaimAsStringList("authorities");
+    return new AuthenticatedUser(id == null ? null : id.longValue(), jwt.getClaim("username"),
+        authorities == null ? List.of() : authorities);
+  }
+
+  private Jwt getLoggedJwt() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    Jwt jwtPrincipal = (Jwt) authentication.getPrincipal();
-    return jwtPrincipal.getClaim("username");
+    return (Jwt) authentication.getPrincipal();
   }
 }
@@ -0,0 +1,117 @@
+package com.gema.thefirst.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gema.thefirst.entities.Category;
+import com.gema.thefirst.entities.Order;
+import com.gema.thefirst.entities.OrderItem;
+import com.gema.thefirst.entities.OrderStatus;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.entities.User;
+import com.gema.thefirst.repositories.CategoryRepository;
+import com.gema.thefirst.repositories.OrderRepository;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.repositories.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Mede linhas/s de inserção em massa no perfil de teste (H2).
+// Rodar com: mvn test -Dtest=BulkInsertBenchmarkTests -Dbenchmark=true
+@SpringBootTest(properties = { "spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=warn",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn" })
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkInsertBenchmarkTests {
+
+  private static final int PRODUCTS = 20_000;
+  private static final int ORDERS = 2_000;
+  private static final int ITEMS_PER_ORDER = 10;
+  private static final int CHUNK = 1_000;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void bulkInsertThroughput() {
+    insertProducts(5_000);
+    insertOrders(500);
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    statistics.clear();
+    long start = System.nanoTime();
+    insertProducts(PRODUCTS);
+    report("products", PRODUCTS * 2L, start, statistics);
+
+    statistics.clear();
+    start = System.nanoTime();
+    insertOrders(ORDERS);
+    report("orders", ORDERS * (1L + ITEMS_PER_ORDER), start, statistics);
+  }
+
+  private void insertProducts(int count) {
+    for (int done = 0; done < count; done += CHUNK) {
+      int chunk = Math.min(CHUNK, count - done);
+      transactionTemplate.executeWithoutResult(status -> {
+        Category category = categoryRepository.getReferenceById(1L);
+        List<Product> products = new ArrayList<>(chunk);
+        for (int i = 0; i < chunk; i++) {
+          Product product = new Product(null, "Bench product " + i, "Benchmark description", 10.0 + i, null);
+          product.getCategories().add(category);
+          products.add(product);
+        }
+        productRepository.saveAll(products);
+      });
+    }
+  }
+
+  private void insertOrders(int count) {
+    for (int done = 0; done < count; done += CHUNK / ITEMS_PER_ORDER) {
+      int chunk = Math.min(CHUNK / ITEMS_PER_ORDER, count - done);
+      transactionTemplate.executeWithoutResult(status -> {
+        User client = userRepository.getReferenceById(1L);
+        List<Product> products = productRepository.findAllById(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+        for (int i = 0; i < chunk; i++) {
+          Order order = new Order(null, Instant.now(), OrderStatus.PAID, client);
+          for (Product product : products) {
+            order.getItems().add(new OrderItem(order, product, 1, product.getPrice()));
+          }
+          orderRepository.save(order);
+        }
+      });
+    }
+  }
+
+  // statements preparados é o número de idas ao banco: sem lote, um por linha
+  private static void report(String what, long rows, long start, Statistics statistics) {
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("[benchmark] %s: %d rows in %.2f s = %.0f rows/s, %d statements prepared%n", what, rows,
+        seconds, rows / seconds, statistics.getPrepareStatementCount());
+  }
+}
@@ -0,0 +1,115 @@
+package com.gema.thefirst.benchmarks;
+
+import static com.gema.thefirst.constants.Constants.FACET_CATEGORY;
+import static com.gema.thefirst.constants.Constants.FACET_PRICE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gema.thefirst.entities.Category;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.repositories.CategoryRepository;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.PageTotalMode;
+import com.gema.thefirst.services.ProductService;
+import com.gema.thefirst.services.search.CategoryBitmapIndex;
+import com.gema.thefirst.services.search.ProductFacetIndex;
+import com.gema.thefirst.services.search.TrigramProductSearchEngine;
+
+// Tempo das facetas (categoria e faixa de preço) sobre 100 mil resultados: só a
+// passada do ProductFacetIndex e a listagem inteira com e sem facetas. O alvo é
+// ficar abaixo de 5 ms por contagem.
+// Rodar com: mvn test -Dtest=FacetBenchmarkTests -Dbenchmark=true
+@SpringBootTest(properties = { "spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=warn" })
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FacetBenchmarkTests {
+
+  private static final int PRODUCTS = 100_000;
+  private static final int CHUNK = 1_000;
+  private static final int ROUNDS = 200;
+  private static final String NAME = "Facet load";
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private TrigramProductSearchEngine productSearchEngine;
+
+  @Autowired
+  private CategoryBitmapIndex categoryBitmapIndex;
+
+  @Autowired
+  private ProductFacetIndex productFacetIndex;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Test
+  void facetCounting() {
+    insertProducts();
+    // gravados direto pelo repositório, sem eventos: remonta os índices
+    productSearchEngine.build();
+    categoryBitmapIndex.build();
+    productFacetIndex.build();
+
+    RoaringBitmap ids = productSearchEngine.matching(NAME, null).orElseThrow();
+    System.out.printf("[benchmark] %d matching products%n", ids.getCardinality());
+
+    measure("warm-up count", () -> productFacetIndex.count(ids, true, true));
+    measure("facet index count", () -> productFacetIndex.count(ids, true, true));
+
+    Pageable pageable = PageRequest.of(0, 20, Sort.by("name"));
+    measure("warm-up listing", () -> productService.findAll(NAME, List.of(), false, Set.of(), PageTotalMode.EXACT,
+        pageable));
+    double plain = measure("listing without facets", () -> productService.findAll(NAME, List.of(), false,
+        Set.of(), PageTotalMode.EXACT, pageable));
+    double faceted = measure("listing with facets", () -> productService.findAll(NAME, List.of(), false,
+        Set.of(FACET_CATEGORY, FACET_PRICE), PageTotalMode.EXACT, pageable));
+    System.out.printf("[benchmark] facets add %.2f ms per listing%n", faceted - plain);
+  }
+
+  private double measure(String what, Runnable work) {
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      work.run();
+    }
+    double millis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+    System.out.printf("[benchmark] %s: %.2f ms%n", what, millis);
+    return millis;
+  }
+
+  // preços espalhados por todas as faixas e três categorias em rodízio
+  private void insertProducts() {
+    for (int done = 0; done < PRODUCTS; done += CHUNK) {
+      transactionTemplate.executeWithoutResult(status -> {
+        List<Category> categories = categoryRepository.findAll();
+        List<Product> products = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+          Product product = new Product(null, NAME + " " + i, "desc", (double) (i * 7 % 3000), null);
+          product.getCategories().add(categories.get(i % categories.size()));
+          products.add(product);
+        }
+        productRepository.saveAll(products);
+      });
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package com.gema.thefirst.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.entities.Category;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.repositories.CategoryRepository;
+import com.gema.thefirst.repositories.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Compara uma página da listagem carregando entidades Product (como era antes)
+// com a projeção direta em ProductMinDTO: bytes alocados no heap por página
+// (ThreadMXBean) e bytes das colunas lidas do banco por página.
+// Rodar com: mvn test -Dtest=ProductListingBenchmarkTests -Dbenchmark=true
+@SpringBootTest(properties = { "spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=warn" })
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductListingBenchmarkTests {
+
+  private static final int PRODUCTS = 20_000;
+  private static final int PAGE_SIZE = 100;
+  private static final int PAGES = 200;
+  private static final int CHUNK = 1_000;
+  // descrições de catálogo real costumam ter alguns KB
+  private static final String DESCRIPTION = "Descrição longa do produto. ".repeat(80);
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Test
+  void listingAllocation() {
+    insertProducts();
+    // aquecimento para o JIT e os planos de consulta
+    measure("warm-up entities", this::entityPage);
+    measure("warm-up projection", this::projectionPage);
+
+    long entityBytes = measure("entities", this::entityPage);
+    long projectionBytes = measure("projection", this::projectionPage);
+    System.out.printf("[benchmark] projection allocates %.1f%% less per page%n",
+        100.0 * (entityBytes - projectionBytes) / entityBytes);
+  }
+
+  // o caminho antigo: entidades gerenciadas, com a descrição, mapeadas depois.
+  // Os dois lados medem só a consulta do conteúdo: o count do Page é o mesmo
+  // nos dois e, no H2 em memória, dominaria a medição.
+  private long entityPage(int page) {
+    List<Product> products = entityManager.createQuery(
+        "SELECT obj FROM Product obj WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) ORDER BY obj.id",
+        Product.class)
+        .setParameter("name", "bench")
+        .setFirstResult(page * PAGE_SIZE)
+        .setMaxResults(PAGE_SIZE)
+        .getResultList();
+    long bytes = 0;
+    for (Product product : products) {
+      bytes += columnBytes(product.getName(), product.getImgUrl()) + columnBytes(product.getDescription())
+          + 3 * Long.BYTES + Integer.BYTES;
+      new ProductMinDTO(product);
+    }
+    return bytes;
+  }
+
+  // mesma consulta de ProductRepository.searchByName
+  private long projectionPage(int page) {
+    List<ProductMinDTO> products = entityManager.createQuery(
+        "SELECT new com.gema.thefirst.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) FROM Product obj "
+            + "WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%', :name, '%')) ORDER BY obj.id",
+        ProductMinDTO.class)
+        .setParameter("name", "bench")
+        .setFirstResult(page * PAGE_SIZE)
+        .setMaxResults(PAGE_SIZE)
+        .getResultList();
+    long bytes = 0;
+    for (ProductMinDTO product : products) {
+      bytes += columnBytes(product.getName(), product.getImgUrl()) + 2 * Long.BYTES;
+    }
+    return bytes;
+  }
+
+  private long measure(String what, PageLoader loader) {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long transferred = 0;
+    long allocated = 0;
+    long start = System.nanoTime();
+    for (int page = 0; page < PAGES; page++) {
+      int current = page % (PRODUCTS / PAGE_SIZE);
+      long before = threads.getCurrentThreadAllocatedBytes();
+      transferred += inReadOnlyTransaction(() -> loader.load(current));
+      allocated += threads.getCurrentThreadAllocatedBytes() - before;
+    }
+    double millis = (System.nanoTime() - start) / 1e6;
+    System.out.printf("[benchmark] %s: %.0f KB allocated/page, %.0f KB of columns read/page, %.2f ms/page%n", what,
+        allocated / 1024.0 / PAGES, transferred / 1024.0 / PAGES, millis / PAGES);
+    return allocated / PAGES;
+  }
+
+  private long inReadOnlyTransaction(Supplier<Long> work) {
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    return readOnly.execute(status -> work.get());
+  }
+
+  private void insertProducts() {
+    for (int done = 0; done < PRODUCTS; done += CHUNK) {
+      transactionTemplate.executeWithoutResult(status -> {
+        Category category = categoryRepository.getReferenceById(1L);
+        List<Product> products = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+          Product product = new Product(null, "Bench product " + i, DESCRIPTION, 10.0 + i,
+              "https://example.com/img/" + i + ".jpg");
+          product.getCategories().add(category);
+          products.add(product);
+        }
+        productRepository.saveAll(products);
+      });
+    }
+  }
+
+  private static long columnBytes(String... values) {
+    long bytes = 0;
+    for (String value : values) {
+      bytes += value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+    return bytes;
+  }
+
+  @FunctionalInterface
+  private interface PageLoader {
+    long load(int page);
+  }
+}
@@ -0,0 +1,180 @@
+package com.gema.thefirst.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gema.thefirst.entities.Role;
+import com.gema.thefirst.entities.User;
+import com.gema.thefirst.repositories.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Vários threads pedindo tokens ao /oauth2/token ao mesmo tempo, cada pedido
+// com um usuário diferente, conferindo que o claim username de cada token é o
+// do usuário que pediu (estado compartilhado no provider misturaria os logins).
+// Mede tokens/s e p50/p99 da latência.
+// Rodar com: mvn test -Dtest=TokenIssuanceBenchmarkTests -Dbenchmark=true
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=warn" })
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TokenIssuanceBenchmarkTests {
+
+  private static final int USERS = 200;
+  private static final int THREADS = 16;
+  private static final int REQUESTS_PER_THREAD = 25;
+  // BCrypt de "123456", o mesmo dos usuários do import.sql
+  private static final String PASSWORD_HASH = "$2a$10$Jr2w.hs9NVcUMTVdGhIP3.RWKB3/NCRfwwxQKgCRTA95dkgD6B5RG";
+
+  @LocalServerPort
+  private int port;
+
+  @Value("${security.client-id}")
+  private String clientId;
+
+  @Value("${security.client-secret}")
+  private String clientSecret;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  @Test
+  void concurrentTokenIssuance() throws Exception {
+    insertUsers();
+    // aquecimento para o JIT e o cache de usuários
+    run(2, 20);
+
+    Result result = run(THREADS, REQUESTS_PER_THREAD);
+    long[] latencies = result.latencies;
+    Arrays.sort(latencies);
+    System.out.printf("[benchmark] %d tokens with %d threads in %.2f s: %.0f tokens/s, p50 %.1f ms, p99 %.1f ms%n",
+        latencies.length, THREADS, result.seconds, latencies.length / result.seconds,
+        percentile(latencies, 50), percentile(latencies, 99));
+    assertEquals(0, result.failures.get(), "requests without a token");
+    assertEquals(0, result.mismatches.get(), "tokens issued with another user's username");
+  }
+
+  private Result run(int threads, int requestsPerThread) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    Result result = new Result();
+    List<Future<long[]>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int thread = t;
+      futures.add(executor.submit(() -> {
+        start.await();
+        long[] latencies = new long[requestsPerThread];
+        for (int i = 0; i < requestsPerThread; i++) {
+          String email = email((thread * requestsPerThread + i) % USERS);
+          long begin = System.nanoTime();
+          String username = requestToken(email);
+          latencies[i] = System.nanoTime() - begin;
+          if (username == null) {
+            result.failures.incrementAndGet();
+          } else if (!username.equals(email)) {
+            result.mismatches.incrementAndGet();
+          }
+        }
+        return latencies;
+      }));
+    }
+    long begin = System.nanoTime();
+    start.countDown();
+    List<long[]> all = new ArrayList<>();
+    for (Future<long[]> future : futures) {
+      all.add(future.get());
+    }
+    result.seconds = (System.nanoTime() - begin) / 1e9;
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    result.latencies = all.stream().flatMapToLong(Arrays::stream).toArray();
+    return result;
+  }
+
+  // username do token emitido, ou null se o pedido falhou
+  private String requestToken(String email) throws Exception {
+    String credentials = Base64.getEncoder()
+        .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/oauth2/token"))
+        .header("Authorization", "Basic " + credentials)
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString("grant_type=password&username=" + email + "&password=123456"))
+        .build();
+    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      return null;
+    }
+    String token = objectMapper.readTree(response.body()).get("access_token").asText();
+    JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1]));
+    return claims.get("username").asText();
+  }
+
+  private void insertUsers() {
+    transactionTemplate.executeWithoutResult(status -> {
+      Role client = entityManager.getReference(Role.class, 1L);
+      List<User> users = new ArrayList<>(USERS);
+      for (int i = 0; i < USERS; i++) {
+        User user = new User();
+        user.setName("Bench user " + i);
+        user.setEmail(email(i));
+        user.setPassword(PASSWORD_HASH);
+        user.addRole(client);
+        users.add(user);
+      }
+      userRepository.saveAll(users);
+    });
+  }
+
+  private static String email(int i) {
+    return "bench" + i + "@gmail.com";
+  }
+
+  private static double percentile(long[] sorted, int percentile) {
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+    return sorted[Math.max(index, 0)] / 1e6;
+  }
+
+  private static class Result {
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger mismatches = new AtomicInteger();
+    private double seconds;
+    private long[] latencies;
+  }
+}
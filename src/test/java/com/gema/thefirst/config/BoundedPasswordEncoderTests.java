@@ -0,0 +1,121 @@
+package com.gema.thefirst.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+// Pool de hash com um thread e fila 0: com o thread ocupado, o /oauth2/token
+// tem de responder 503 com Retry-After na hora, e voltar a emitir ao liberar.
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "security.password-hashing.threads=1",
+    "security.password-hashing.queue-size=0" })
+@ActiveProfiles("test")
+class BoundedPasswordEncoderTests {
+
+  // BCrypt de "123456", o mesmo dos usuários do import.sql
+  private static final String PASSWORD_HASH = "$2a$10$Jr2w.hs9NVcUMTVdGhIP3.RWKB3/NCRfwwxQKgCRTA95dkgD6B5RG";
+
+  @LocalServerPort
+  private int port;
+
+  @Value("${security.client-id}")
+  private String clientId;
+
+  @Value("${security.client-secret}")
+  private String clientSecret;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  @Test
+  void tokenEndpointAnswers503WithRetryAfterWhenPoolIsSaturated() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    // o BCrypt lê a senha no thread do pool: segura o único thread até o release
+    CharSequence blockingPassword = new BlockingPassword(started, release);
+    CompletableFuture<Boolean> occupying = CompletableFuture
+        .supplyAsync(() -> passwordEncoder.matches(blockingPassword, PASSWORD_HASH));
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    try {
+      HttpResponse<String> rejected = requestToken();
+      assertEquals(503, rejected.statusCode());
+      assertEquals("1", rejected.headers().firstValue("Retry-After").orElse(null));
+      assertTrue(rejected.body().contains("\"error\":\"temporarily_unavailable\""), rejected.body());
+    } finally {
+      release.countDown();
+    }
+    assertTrue(occupying.get(10, TimeUnit.SECONDS));
+
+    assertEquals(200, requestToken().statusCode());
+  }
+
+  private HttpResponse<String> requestToken() throws Exception {
+    String credentials = Base64.getEncoder()
+        .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/oauth2/token"))
+        .header("Authorization", "Basic " + credentials)
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString("grant_type=password&username=maria@gmail.com&password=123456"))
+        .build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static class BlockingPassword implements CharSequence {
+    private static final String VALUE = "123456";
+
+    private final CountDownLatch started;
+    private final CountDownLatch release;
+
+    BlockingPassword(CountDownLatch started, CountDownLatch release) {
+      this.started = started;
+      this.release = release;
+    }
+
+    @Override
+    public String toString() {
+      started.countDown();
+      try {
+        release.await(30, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return VALUE;
+    }
+
+    @Override
+    public int length() {
+      return VALUE.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      return VALUE.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return VALUE.subSequence(start, end);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.gema.thefirst.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CachingJwtDecoderTests {
+
+  private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+  private final Map<String, Jwt> valid = new HashMap<>();
+  private final AtomicInteger delegateCalls = new AtomicInteger();
+  private final AtomicLong nanos = new AtomicLong();
+
+  // delegate de mentira: aceita só os tokens de valid e conta as chamadas
+  private final JwtDecoder delegate = token -> {
+    delegateCalls.incrementAndGet();
+    Jwt jwt = valid.get(token);
+    if (jwt == null) {
+      throw new BadJwtException("invalid signature");
+    }
+    return jwt;
+  };
+
+  private final CachingJwtDecoder decoder =
+      new CachingJwtDecoder(delegate, 100, MAX_AGE, new SimpleMeterRegistry(), nanos::get);
+
+  @Test
+  void cachedTokenSkipsTheDelegate() {
+    Jwt jwt = register("good", Instant.now().plusSeconds(60));
+
+    assertSame(jwt, decoder.decode("good"));
+    assertSame(jwt, decoder.decode("good"));
+    assertSame(jwt, decoder.decode("good"));
+    assertEquals(1, delegateCalls.get());
+  }
+
+  // um token recusado volta ao delegate a cada tentativa
+  @Test
+  void rejectedTokenIsNotCached() {
+    assertThrows(BadJwtException.class, () -> decoder.decode("tampered"));
+    assertThrows(BadJwtException.class, () -> decoder.decode("tampered"));
+    assertEquals(2, delegateCalls.get());
+  }
+
+  @Test
+  void entryIsGoneAfterTheTokenExpires() {
+    register("good", Instant.now().plusSeconds(30));
+    decoder.decode("good");
+
+    advance(Duration.ofSeconds(25));
+    decoder.decode("good");
+    assertEquals(1, delegateCalls.get());
+
+    // vencido: o delegate decide de novo (e o de verdade recusa pelo exp)
+    advance(Duration.ofSeconds(10));
+    valid.remove("good");
+    assertThrows(BadJwtException.class, () -> decoder.decode("good"));
+    assertEquals(2, delegateCalls.get());
+  }
+
+  @Test
+  void tokenWithoutExpiryIsKeptAtMostMaxAge() {
+    register("no-exp", null);
+    decoder.decode("no-exp");
+
+    advance(MAX_AGE.minusSeconds(1));
+    decoder.decode("no-exp");
+    assertEquals(1, delegateCalls.get());
+
+    advance(Duration.ofSeconds(2));
+    decoder.decode("no-exp");
+    assertEquals(2, delegateCalls.get());
+  }
+
+  // exp além do maxAge também não passa do maxAge
+  @Test
+  void longLivedTokenIsCappedAtMaxAge() {
+    register("long", Instant.now().plus(Duration.ofDays(1)));
+    decoder.decode("long");
+
+    advance(MAX_AGE.plusSeconds(1));
+    decoder.decode("long");
+    assertEquals(2, delegateCalls.get());
+  }
+
+  private Jwt register(String token, Instant expiresAt) {
+    Jwt jwt = Jwt.withTokenValue(token)
+        .header("alg", "ES256")
+        .subject("maria@gmail.com")
+        .issuedAt(Instant.now().minusSeconds(1))
+        .expiresAt(expiresAt)
+        .build();
+    valid.put(token, jwt);
+    return jwt;
+  }
+
+  private void advance(Duration duration) {
+    nanos.addAndGet(duration.toNanos());
+  }
+}
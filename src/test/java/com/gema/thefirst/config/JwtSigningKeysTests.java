@@ -0,0 +1,143 @@
+package com.gema.thefirst.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+
+class JwtSigningKeysTests {
+
+  @TempDir
+  private Path dir;
+
+  // só o bloco PRIVATE KEY: a pública sai do módulo e do expoente do PKCS#8
+  @Test
+  void rsaPrivateKeyAloneIsEnough() throws Exception {
+    KeyPair pair = rsa();
+
+    JWK key = JwtSigningKeys.parsePem(pem("PRIVATE KEY", pair.getPrivate()));
+
+    RSAKey rsa = assertInstanceOf(RSAKey.class, key);
+    assertTrue(rsa.isPrivate());
+    assertEquals(JWSAlgorithm.RS256, rsa.getAlgorithm());
+    assertEquals(pair.getPublic(), rsa.toRSAPublicKey());
+    assertEquals(rsa.computeThumbprint().toString(), rsa.getKeyID());
+  }
+
+  @Test
+  void ecKeyWithPublicBlockSignsWithEs256() throws Exception {
+    KeyPair pair = ec();
+
+    JWK key = JwtSigningKeys.parsePem(pem("PRIVATE KEY", pair.getPrivate()) + pem("PUBLIC KEY", pair.getPublic()));
+
+    ECKey ec = assertInstanceOf(ECKey.class, key);
+    assertTrue(ec.isPrivate());
+    assertEquals(JWSAlgorithm.ES256, ec.getAlgorithm());
+    assertEquals(pair.getPublic(), ec.toECPublicKey());
+  }
+
+  // sem a pública não há como montar a chave EC; o erro da subida cita o arquivo
+  @Test
+  void ecKeyWithoutPublicBlockIsRejected() throws Exception {
+    String location = write("ec-private.pem", pem("PRIVATE KEY", ec().getPrivate()));
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> load(location));
+    assertTrue(e.getMessage().contains(location), e.getMessage());
+    assertTrue(e.getMessage().contains("PUBLIC KEY"), e.getMessage());
+  }
+
+  // rotação: a primeira assina, a aposentada (só pública) continua validando
+  @Test
+  void retiredPublicOnlyKeyIsAcceptedForValidation() throws Exception {
+    KeyPair active = ec();
+    KeyPair retired = rsa();
+    String activeLocation = write("active.pem", pem("PRIVATE KEY", active.getPrivate())
+        + pem("PUBLIC KEY", active.getPublic()));
+    String retiredLocation = write("retired.pem", pem("PUBLIC KEY", retired.getPublic()));
+
+    JwtSigningKeys keys = load(activeLocation, retiredLocation);
+
+    assertEquals(2, keys.getJwkSet().getKeys().size());
+    JWK signing = keys.getJwkSet().getKeyByKeyId(keys.getActiveKeyId());
+    assertTrue(signing.isPrivate());
+    assertEquals("ES256", keys.getAlgorithm().getName());
+    JWK validating = keys.getJwkSet().getKeys().get(1);
+    assertFalse(validating.isPrivate());
+    assertEquals(retired.getPublic(), validating.toRSAKey().toRSAPublicKey());
+  }
+
+  @Test
+  void firstKeyWithoutPrivatePartIsRejected() throws Exception {
+    KeyPair pair = rsa();
+    String publicOnly = write("public.pem", pem("PUBLIC KEY", pair.getPublic()));
+    String signing = write("signing.pem", pem("PRIVATE KEY", pair.getPrivate()));
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> load(publicOnly, signing));
+    assertTrue(e.getMessage().contains("private key"), e.getMessage());
+  }
+
+  // bloco privado RSA com público EC (arquivos concatenados errado)
+  @Test
+  void mismatchedKeyTypesAreRejectedNamingTheFile() throws Exception {
+    String location = write("mixed.pem", pem("PRIVATE KEY", rsa().getPrivate()) + pem("PUBLIC KEY", ec().getPublic()));
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> load(location));
+    assertTrue(e.getMessage().contains(location), e.getMessage());
+    assertInstanceOf(IllegalArgumentException.class, e.getCause());
+  }
+
+  @Test
+  void traditionalRsaBlockIsRejected() throws Exception {
+    String location = write("traditional.pem", pem("RSA PRIVATE KEY", rsa().getPrivate()));
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> load(location));
+    assertTrue(e.getMessage().contains("unsupported PEM block"), e.getMessage());
+  }
+
+  private JwtSigningKeys load(String... locations) {
+    return JwtSigningKeys.load(locations, new DefaultResourceLoader());
+  }
+
+  private String write(String name, String content) throws IOException {
+    Path file = dir.resolve(name);
+    Files.writeString(file, content);
+    return "file:" + file;
+  }
+
+  private static String pem(String type, Key key) {
+    String body = Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(key.getEncoded());
+    return "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n";
+  }
+
+  private static KeyPair rsa() throws GeneralSecurityException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    return generator.generateKeyPair();
+  }
+
+  private static KeyPair ec() throws GeneralSecurityException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"));
+    return generator.generateKeyPair();
+  }
+}
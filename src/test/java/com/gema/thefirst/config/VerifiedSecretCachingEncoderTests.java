@@ -0,0 +1,117 @@
+package com.gema.thefirst.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class VerifiedSecretCachingEncoderTests {
+
+  @LocalServerPort
+  private int port;
+
+  @Value("${security.client-id}")
+  private String clientId;
+
+  @Value("${security.client-secret}")
+  private String clientSecret;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final AtomicInteger delegateCalls = new AtomicInteger();
+
+  // delegate de mentira: o "hash" é o segredo com prefixo, e conta as chamadas
+  private final PasswordEncoder delegate = new PasswordEncoder() {
+    @Override
+    public String encode(CharSequence rawPassword) {
+      return "hash:" + rawPassword;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      delegateCalls.incrementAndGet();
+      return encode(rawPassword).equals(encodedPassword);
+    }
+  };
+
+  private final VerifiedSecretCachingEncoder encoder =
+      new VerifiedSecretCachingEncoder(delegate, Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+
+  @Test
+  void correctSecretHitsTheCacheOnTheSecondCall() {
+    assertTrue(encoder.matches("secret", "hash:secret"));
+    assertTrue(encoder.matches("secret", "hash:secret"));
+    assertEquals(1, delegateCalls.get());
+  }
+
+  @Test
+  void wrongSecretAlwaysReachesTheDelegate() {
+    assertFalse(encoder.matches("wrong", "hash:secret"));
+    assertFalse(encoder.matches("wrong", "hash:secret"));
+    assertEquals(2, delegateCalls.get());
+
+    // nem um acerto depois faz o errado passar
+    assertTrue(encoder.matches("secret", "hash:secret"));
+    assertFalse(encoder.matches("wrong", "hash:secret"));
+    assertEquals(4, delegateCalls.get());
+  }
+
+  // segredo trocado: o hash guardado muda e a entrada antiga não serve
+  @Test
+  void changedStoredHashMissesTheCache() {
+    assertTrue(encoder.matches("secret", "hash:secret"));
+    assertFalse(encoder.matches("secret", "hash:rotated"));
+    assertEquals(2, delegateCalls.get());
+  }
+
+  // o ClientSecretAuthenticationProvider do /oauth2/token usa o encoder com cache
+  @Test
+  void clientAuthenticationUsesTheCache() throws Exception {
+    double hits = clientSecretCacheGets("hit");
+
+    assertEquals(200, requestToken());
+    assertEquals(200, requestToken());
+
+    // a segunda chamada, no mínimo, já acha o segredo conferido
+    assertTrue(clientSecretCacheGets("hit") > hits);
+  }
+
+  private double clientSecretCacheGets(String result) {
+    return meterRegistry.get("cache.gets").tag("cache", "client_secrets").tag("result", result)
+        .functionCounter().count();
+  }
+
+  private int requestToken() throws Exception {
+    String credentials = Base64.getEncoder()
+        .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/oauth2/token"))
+        .header("Authorization", "Basic " + credentials)
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString("grant_type=password&username=maria@gmail.com&password=123456"))
+        .build();
+    return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+}
@@ -0,0 +1,78 @@
+package com.gema.thefirst.config.authorization;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CaffeineOAuth2AuthorizationServiceTests {
+
+  private static final RegisteredClient CLIENT = RegisteredClient.withId("client")
+      .clientId("client")
+      .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+      .authorizationGrantType(new AuthorizationGrantType("password"))
+      .build();
+
+  private final CaffeineOAuth2AuthorizationService service =
+      new CaffeineOAuth2AuthorizationService(Duration.ofHours(1), 100, new SimpleMeterRegistry());
+
+  @Test
+  void findByTokenMatchesTokenAndType() {
+    OAuth2Authorization authorization = authorization("a1", "access-1", "refresh-1");
+    service.save(authorization);
+
+    assertSame(authorization, service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+    assertSame(authorization, service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN));
+    assertSame(authorization, service.findByToken("access-1", null));
+    assertNull(service.findByToken("access-1", OAuth2TokenType.REFRESH_TOKEN));
+    assertNull(service.findByToken("unknown", null));
+  }
+
+  // o índice de tokens não é limpo na remoção: a busca não pode achar nada
+  @Test
+  void findByTokenAfterRemoveReturnsNull() {
+    OAuth2Authorization authorization = authorization("a1", "access-1", "refresh-1");
+    service.save(authorization);
+    service.remove(authorization);
+
+    assertNull(service.findById("a1"));
+    assertNull(service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+    assertNull(service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN));
+    assertNull(service.findByToken("access-1", null));
+  }
+
+  // o token antigo, ainda no índice, não pode levar à autorização que substituiu a dele
+  @Test
+  void replacedTokenIsNotFound() {
+    service.save(authorization("a1", "access-1", "refresh-1"));
+    OAuth2Authorization refreshed = authorization("a1", "access-2", "refresh-1");
+    service.save(refreshed);
+
+    assertNull(service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+    assertNull(service.findByToken("access-1", null));
+    assertSame(refreshed, service.findByToken("access-2", OAuth2TokenType.ACCESS_TOKEN));
+  }
+
+  private static OAuth2Authorization authorization(String id, String accessToken, String refreshToken) {
+    Instant now = Instant.now();
+    return OAuth2Authorization.withRegisteredClient(CLIENT)
+        .id(id)
+        .principalName("maria@gmail.com")
+        .authorizationGrantType(new AuthorizationGrantType("password"))
+        .token(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, accessToken, now, now.plusSeconds(60)))
+        .token(new OAuth2RefreshToken(refreshToken, now, now.plusSeconds(3600)))
+        .build();
+  }
+}
@@ -0,0 +1,93 @@
+package com.gema.thefirst.config.authorization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Emissão e leitura de volta com security.authorization-store.type=jdbc, com a
+// tabela criada pelo mesmo oauth2-authorization.sql do PostgreSQL. A criação
+// roda antes do JdbcTemplate existir, porque o JdbcOAuth2AuthorizationService
+// lê os tipos das colunas ao ser construído.
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "security.authorization-store.type=jdbc",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=file:oauth2-authorization.sql",
+    "spring.sql.init.data-locations=optional:classpath:none.sql" })
+@ActiveProfiles("test")
+class JdbcAuthorizationStoreTests {
+
+  @LocalServerPort
+  private int port;
+
+  @Value("${security.client-id}")
+  private String clientId;
+
+  @Value("${security.client-secret}")
+  private String clientSecret;
+
+  @Autowired
+  private OAuth2AuthorizationService authorizationService;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  @Test
+  void issuedTokenIsReadBackFromTheTable() throws Exception {
+    assertInstanceOf(ExpiringJdbcOAuth2AuthorizationService.class, authorizationService);
+
+    String token = post("/oauth2/token", "grant_type=password&username=maria@gmail.com&password=123456")
+        .get("access_token").asText();
+
+    OAuth2Authorization authorization = authorizationService.findByToken(token, OAuth2TokenType.ACCESS_TOKEN);
+    assertNotNull(authorization);
+    assertEquals(clientId, authorization.getRegisteredClientId());
+    assertEquals(token, authorization.getAccessToken().getToken().getTokenValue());
+    // os claims voltam do banco, inclusive o user_id (Long)
+    assertEquals("maria@gmail.com", authorization.getAccessToken().getClaims().get("username"));
+    assertEquals(1L, authorization.getAccessToken().getClaims().get("user_id"));
+    assertNotNull(authorizationService.findByToken(token, null));
+    assertEquals(authorization.getId(), authorizationService.findById(authorization.getId()).getId());
+
+    // o introspect lê a linha e desserializa os atributos
+    assertEquals(true, post("/oauth2/introspect", "token=" + token).get("active").asBoolean());
+
+    authorizationService.remove(authorization);
+    assertNull(authorizationService.findByToken(token, OAuth2TokenType.ACCESS_TOKEN));
+    assertEquals(false, post("/oauth2/introspect", "token=" + token).get("active").asBoolean());
+  }
+
+  private JsonNode post(String path, String form) throws Exception {
+    String credentials = Base64.getEncoder()
+        .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+        .header("Authorization", "Basic " + credentials)
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString(form))
+        .build();
+    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    assertEquals(200, response.statusCode(), response.body());
+    return objectMapper.readTree(response.body());
+  }
+}
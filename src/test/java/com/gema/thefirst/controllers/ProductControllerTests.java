@@ -0,0 +1,193 @@
+package com.gema.thefirst.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.ProductService;
+
+// O que só existe na camada HTTP de /products: validação de parâmetros,
+// autorização e códigos de resposta
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ProductControllerTests {
+
+  @LocalServerPort
+  private int port;
+
+  @Value("${security.client-id}")
+  private String clientId;
+
+  @Value("${security.client-secret}")
+  private String clientSecret;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private ProductService productService;
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  @Test
+  void idsAboveTheLimitAreRejected() throws Exception {
+    String ids = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    assertEquals(400, get("/products?ids=" + ids).statusCode());
+    assertEquals(200, get("/products?ids=" + ids.substring(0, ids.lastIndexOf(','))).statusCode());
+  }
+
+  @Test
+  void emptyIdItemIsRejected() throws Exception {
+    assertEquals(400, get("/products?ids=1,,2").statusCode());
+  }
+
+  // sem total não há count, e as facetas dependem dele
+  @Test
+  void facetsWithoutTotalAreRejected() throws Exception {
+    assertEquals(400, get("/products?total=none&facets=price").statusCode());
+    assertEquals(200, get("/products?total=estimated&facets=price").statusCode());
+  }
+
+  @Test
+  void badCursorIsRejected() throws Exception {
+    String first = get("/products/scroll?name=pc&size=2").body();
+    String cursor = first.replaceAll("(?s).*\"nextCursor\":\"([^\"]+)\".*", "$1");
+    assertEquals(200, get("/products/scroll?name=pc&size=2&cursor=" + cursor).statusCode());
+
+    // adulterado, malformado e de outra consulta
+    assertEquals(400, get("/products/scroll?name=pc&size=2&cursor=" + cursor.substring(0, 10) + "AAAA").statusCode());
+    assertEquals(400, get("/products/scroll?name=pc&size=2&cursor=bm90LWEtY3Vyc29y").statusCode());
+    assertEquals(400, get("/products/scroll?name=tv&size=2&cursor=" + cursor).statusCode());
+  }
+
+  // o resumo da importação continua disponível, só para ADMIN
+  @Test
+  void importJobStatusIsAvailableToAdmins() throws Exception {
+    String admin = token("alex@gmail.com");
+    HttpRequest upload = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products/import"))
+        .header("Authorization", "Bearer " + admin)
+        .header("Content-Type", "text/csv")
+        .POST(HttpRequest.BodyPublishers.ofString("name,description,price,categories\n"
+            + "Import Status Probe,Produto importado em teste,10.0,1\n"
+            + "ab,curta,10.0,1\n"))
+        .build();
+    HttpResponse<String> created = httpClient.send(upload, HttpResponse.BodyHandlers.ofString());
+    try {
+      assertEquals(200, created.statusCode());
+      String id = objectMapper.readTree(created.body()).get("id").asText();
+
+      HttpResponse<String> response = get("/products/import/" + id, admin);
+      assertEquals(200, response.statusCode());
+      JsonNode job = objectMapper.readTree(response.body());
+      assertEquals("COMPLETED", job.get("status").asText());
+      assertEquals(2, job.get("processed").asLong());
+      assertEquals(1, job.get("imported").asLong());
+      assertEquals(1, job.get("failed").asLong());
+      assertEquals(3, job.get("errors").get(0).get("row").asLong());
+
+      assertEquals(403, get("/products/import/" + id, token("maria@gmail.com")).statusCode());
+      assertEquals(404, get("/products/import/missing", admin).statusCode());
+    } finally {
+      productRepository.searchByName("Import Status Probe", PageRequest.of(0, 10))
+          .forEach(product -> productService.delete(product.getId()));
+    }
+  }
+
+  // gzip pedido pelo parâmetro ou pelo Accept-Encoding; Vary sempre, para
+  // caches não servirem a versão comprimida a quem não a aceita
+  @Test
+  void exportIsCompressedOnRequest() throws Exception {
+    String client = token("maria@gmail.com");
+
+    HttpResponse<byte[]> plain = export("/products/export", client, "identity");
+    assertEquals(200, plain.statusCode());
+    assertEquals(Optional.empty(), plain.headers().firstValue("Content-Encoding"));
+    assertTrue(variesByEncoding(plain));
+
+    for (HttpResponse<byte[]> gzip : List.of(export("/products/export", client, "gzip, deflate"),
+        export("/products/export?gzip=true", client, "identity"))) {
+      assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElseThrow());
+      assertTrue(variesByEncoding(gzip));
+      try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.body()))) {
+        assertArrayEquals(plain.body(), in.readAllBytes());
+      }
+    }
+
+    HttpResponse<byte[]> csv = export("/products/export?format=csv&gzip=false", client, "gzip");
+    assertEquals(Optional.empty(), csv.headers().firstValue("Content-Encoding"));
+    assertTrue(csv.headers().firstValue("Content-Type").orElseThrow().startsWith("text/csv"));
+  }
+
+  @Test
+  void exportRejectsUnknownFormat() throws Exception {
+    assertEquals(400, get("/products/export?format=xml", token("maria@gmail.com")).statusCode());
+    assertEquals(401, get("/products/export").statusCode());
+  }
+
+  // o filtro de CORS também acrescenta os seus Vary
+  private static boolean variesByEncoding(HttpResponse<?> response) {
+    return response.headers().allValues("Vary").stream().anyMatch(x -> x.contains("Accept-Encoding"));
+  }
+
+  private HttpResponse<byte[]> export(String path, String token, String acceptEncoding) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+        .header("Authorization", "Bearer " + token)
+        .header("Accept-Encoding", acceptEncoding)
+        .GET()
+        .build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+  private HttpResponse<String> get(String path) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpResponse<String> get(String path, String token) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+        .header("Authorization", "Bearer " + token)
+        .GET()
+        .build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private String token(String username) throws Exception {
+    String credentials = Base64.getEncoder()
+        .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/oauth2/token"))
+        .header("Authorization", "Basic " + credentials)
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString("grant_type=password&username=" + username + "&password=123456"))
+        .build();
+    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    return objectMapper.readTree(response.body()).get("access_token").asText();
+  }
+}
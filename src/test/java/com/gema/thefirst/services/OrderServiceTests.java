@@ -0,0 +1,199 @@
+package com.gema.thefirst.services;
+
+import static com.gema.thefirst.constants.Constants.PRODUTO_NAO_ENCONTRADO;
+import static com.gema.thefirst.constants.Constants.PRODUTO_OBRIGATORIO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gema.thefirst.dto.OrderDTO;
+import com.gema.thefirst.dto.OrderItemDTO;
+import com.gema.thefirst.entities.Order;
+import com.gema.thefirst.entities.OrderItem;
+import com.gema.thefirst.entities.OrderStatus;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.entities.User;
+import com.gema.thefirst.repositories.OrderItemRepository;
+import com.gema.thefirst.repositories.OrderRepository;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.repositories.UserRepository;
+import com.gema.thefirst.services.exceptions.BadRequestException;
+import com.gema.thefirst.services.exceptions.ResourceNotFoundException;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.gema.thefirst.services.RecordingStatementInspector",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn" })
+@ActiveProfiles("test")
+class OrderServiceTests {
+
+  @Autowired
+  private OrderService orderService;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private OrderItemRepository orderItemRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  // os pedidos são gravados com commit (o findById abre a própria transação),
+  // então são apagados ao fim de cada teste para não vazar para os outros
+  private final List<Long> createdOrderIds = new ArrayList<>();
+  private final List<Long> createdProductIds = new ArrayList<>();
+
+  @BeforeEach
+  void authenticateAsAdmin() {
+    Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", "alex@gmail.com")
+        .claim("user_id", 2L).claim("authorities", List.of("ROLE_CLIENT", "ROLE_ADMIN")).build();
+    SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+  }
+
+  @AfterEach
+  void clearAuthentication() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @AfterEach
+  void deleteCreatedOrders() {
+    transactionTemplate.executeWithoutResult(status -> {
+      for (Long orderId : createdOrderIds) {
+        orderRepository.findById(orderId).ifPresent(order -> {
+          orderItemRepository.deleteAll(order.getItems());
+          orderRepository.delete(order);
+        });
+      }
+      productRepository.deleteAllById(createdProductIds);
+    });
+    createdOrderIds.clear();
+    createdProductIds.clear();
+  }
+
+  @Test
+  void findByIdShouldRunSameNumberOfStatementsRegardlessOfItemCount() {
+    Long smallOrderId = createOrderWithItems(1);
+    Long largeOrderId = createOrderWithItems(20);
+
+    long smallOrderStatements = statementsFor(smallOrderId);
+    long largeOrderStatements = statementsFor(largeOrderId);
+
+    assertEquals(smallOrderStatements, largeOrderStatements);
+    // só a consulta do pedido: o usuário autenticado e seus perfis vêm do token
+    assertEquals(1, largeOrderStatements);
+  }
+
+  // os produtos num IN só e os itens num único comando em lote: 200 itens
+  // custam os mesmos comandos que 1
+  @Test
+  void insertShouldLoadProductsOnceAndBatchItems() {
+    List<Long> productIds = createProducts(200);
+
+    List<String> smallOrderStatements = insertStatementsFor(productIds.subList(0, 1));
+    List<String> largeOrderStatements = insertStatementsFor(productIds);
+
+    assertEquals(smallOrderStatements, largeOrderStatements);
+    // produtos, cliente (para o ClientDTO da resposta), pedido e itens
+    assertEquals(4, largeOrderStatements.size(), largeOrderStatements::toString);
+    assertEquals(1, largeOrderStatements.stream().filter(sql -> sql.startsWith("select")
+        && sql.contains("tb_product") && sql.contains(" in ")).count(), largeOrderStatements::toString);
+    assertEquals(1, largeOrderStatements.stream().filter(sql -> sql.startsWith("insert into tb_order_item")).count());
+  }
+
+  @Test
+  void insertShouldReportEveryMissingProduct() {
+    OrderDTO dto = order(List.of(1L, 999_001L, 2L, 999_002L));
+
+    ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class, () -> orderService.insert(dto));
+    assertEquals(PRODUTO_NAO_ENCONTRADO + "999001, 999002", e.getMessage());
+  }
+
+  @Test
+  void insertShouldRejectItemWithoutProductId() {
+    List<Long> productIds = new ArrayList<>(List.of(1L));
+    productIds.add(null);
+    OrderDTO dto = order(productIds);
+
+    BadRequestException e = assertThrows(BadRequestException.class, () -> orderService.insert(dto));
+    assertEquals(PRODUTO_OBRIGATORIO, e.getMessage());
+  }
+
+  private List<String> insertStatementsFor(List<Long> productIds) {
+    RecordingStatementInspector.clear();
+    OrderDTO saved = orderService.insert(order(productIds));
+    createdOrderIds.add(saved.getId());
+    assertEquals(productIds.size(), saved.getItems().size());
+    return RecordingStatementInspector.statements();
+  }
+
+  private static OrderDTO order(List<Long> productIds) {
+    OrderDTO dto = new OrderDTO(null, null, null, null, null);
+    for (Long productId : productIds) {
+      dto.getItems().add(new OrderItemDTO(productId, null, null, 1, null));
+    }
+    return dto;
+  }
+
+  private List<Long> createProducts(int count) {
+    List<Long> ids = transactionTemplate.execute(status -> {
+      List<Product> products = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        products.add(new Product(null, "Order Test Product " + i, "desc", 10.0, null));
+      }
+      return productRepository.saveAll(products).stream().map(Product::getId).toList();
+    });
+    createdProductIds.addAll(ids);
+    return ids;
+  }
+
+  private long statementsFor(Long orderId) {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    OrderDTO dto = orderService.findById(orderId);
+    assertTrue(dto.getItems().stream().allMatch(item -> item.getName() != null));
+    return statistics.getPrepareStatementCount();
+  }
+
+  private Long createOrderWithItems(int itemCount) {
+    Long orderId = transactionTemplate.execute(status -> {
+      User client = userRepository.findByEmail("maria@gmail.com").get();
+      Order order = orderRepository.save(new Order(null, Instant.now(), OrderStatus.PAID, client));
+      for (long productId = 1; productId <= itemCount; productId++) {
+        Product product = productRepository.getReferenceById(productId);
+        orderItemRepository.save(new OrderItem(order, product, 1, 10.0));
+      }
+      return order.getId();
+    });
+    createdOrderIds.add(orderId);
+    return orderId;
+  }
+}
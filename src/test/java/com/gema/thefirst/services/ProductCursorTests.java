@@ -0,0 +1,77 @@
+package com.gema.thefirst.services;
+
+import static com.gema.thefirst.constants.Constants.CURSOR_INVALIDO;
+import static com.gema.thefirst.constants.Constants.CURSOR_OUTRA_CONSULTA;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.services.exceptions.BadRequestException;
+
+class ProductCursorTests {
+
+  @Test
+  void nameCursorRoundTrips() {
+    // ":" no nome não pode confundir o separador do formato
+    ProductCursor cursor = roundTrip("name,desc", "pc", new ProductMinDTO(7L, "PC: Gamer Pro", 1350.0, null));
+
+    assertEquals(Sort.Direction.DESC, cursor.getOrder().getDirection());
+    assertEquals("name", cursor.getOrder().getProperty());
+    assertEquals(Map.of("name", "PC: Gamer Pro", "id", 7L), cursor.position().getKeys());
+  }
+
+  // preços empatados se distinguem pelo id guardado junto
+  @Test
+  void priceCursorKeepsTheTieBreakingId() {
+    ProductCursor first = roundTrip("price", "", new ProductMinDTO(10L, "PC Gamer Boo", 1350.0, null));
+    ProductCursor second = roundTrip("price", "", new ProductMinDTO(11L, "PC Gamer Foo", 1350.0, null));
+
+    assertEquals(Sort.Direction.ASC, first.getOrder().getDirection());
+    assertEquals(Map.of("price", 1350.0, "id", 10L), first.position().getKeys());
+    assertEquals(Map.of("price", 1350.0, "id", 11L), second.position().getKeys());
+  }
+
+  @Test
+  void cursorOnlyContinuesTheSameName() {
+    ProductCursor cursor = roundTrip("name", "gamer", new ProductMinDTO(7L, "PC Gamer", 1200.0, null));
+
+    assertDoesNotThrow(() -> cursor.checkName("gamer"));
+    BadRequestException e = assertThrows(BadRequestException.class, () -> cursor.checkName("tv"));
+    assertEquals(CURSOR_OUTRA_CONSULTA, e.getMessage());
+  }
+
+  @Test
+  void malformedOrTamperedCursorIsRejected() {
+    String valid = ProductCursor.after(ProductCursor.parseSort("price"), "",
+        new ProductMinDTO(7L, "PC Gamer", 1200.0, null)).encode();
+
+    assertInvalid("not base64!");
+    assertInvalid(encode("price,asc:7"));
+    assertInvalid(encode("price,asc:abc::1200.0"));
+    assertInvalid(encode("price,asc:7::cheap"));
+    assertInvalid(encode("imgUrl,asc:7::x"));
+    assertInvalid(valid.substring(0, valid.length() / 2) + "$$");
+  }
+
+  private static ProductCursor roundTrip(String sort, String name, ProductMinDTO last) {
+    String token = ProductCursor.after(ProductCursor.parseSort(sort), name, last).encode();
+    return ProductCursor.decode(token);
+  }
+
+  private static void assertInvalid(String token) {
+    BadRequestException e = assertThrows(BadRequestException.class, () -> ProductCursor.decode(token));
+    assertEquals(CURSOR_INVALIDO, e.getMessage());
+  }
+
+  private static String encode(String raw) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,171 @@
+package com.gema.thefirst.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gema.thefirst.dto.CategoryDTO;
+import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.util.CsvUtil;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductExportServiceTests {
+
+  @Autowired
+  private ProductExportService productExportService;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  // um objeto por linha, com as categorias (id e nome) agrupadas no produto
+  @Test
+  void ndjsonHasOneProductPerLineWithCategories() throws IOException {
+    List<String> lines = export(ProductFileFormat.NDJSON, null);
+
+    assertEquals(productRepository.count(), lines.size());
+    JsonNode smartTv = objectMapper.readTree(lines.get(1));
+    assertEquals(2, smartTv.get("id").asLong());
+    assertEquals("Smart TV", smartTv.get("name").asText());
+    assertEquals(2190.0, smartTv.get("price").asDouble());
+    assertEquals(2, smartTv.get("categories").size());
+    assertEquals(2, smartTv.get("categories").get(0).get("id").asLong());
+    assertEquals(3, smartTv.get("categories").get(1).get("id").asLong());
+    assertEquals("Computadores", smartTv.get("categories").get(1).get("name").asText());
+  }
+
+  // mesmas linhas em CSV: cabeçalho, campos com vírgula entre aspas e as
+  // categorias numa coluna só, separadas por ';'
+  @Test
+  void csvHasTheImportColumnsAndQuotesFields() throws IOException {
+    ProductDTO saved = productService.insert(new ProductDTO(null, "Export, \"Quoted\"", "Produto exportado em teste",
+        10.0, null));
+    try {
+      List<String> lines = export(ProductFileFormat.CSV, null);
+
+      assertEquals("id,name,description,price,imgUrl,updatedAt,categories", lines.get(0));
+      assertEquals(productRepository.count() + 1, lines.size());
+      List<String> smartTv = CsvUtil.parseLine(lines.get(2));
+      assertEquals("Smart TV", smartTv.get(1));
+      assertEquals("2;3", smartTv.get(6));
+
+      List<String> quoted = CsvUtil.parseLine(lines.get(lines.size() - 1));
+      assertEquals(String.valueOf(saved.getId()), quoted.get(0));
+      assertEquals("Export, \"Quoted\"", quoted.get(1));
+      // produto sem categoria: coluna vazia
+      assertEquals("", quoted.get(6));
+    } finally {
+      productService.delete(saved.getId());
+    }
+  }
+
+  // com since, só os alterados depois dele
+  @Test
+  void sinceExportsOnlyLaterChanges() throws IOException {
+    ProductDTO before = productService.insert(productDTO("Export Before"));
+    Instant since = updatedAt(before.getId());
+    ProductDTO after = productService.insert(productDTO("Export After"));
+    try {
+      List<Long> ids = new ArrayList<>();
+      for (String line : export(ProductFileFormat.NDJSON, since)) {
+        ids.add(objectMapper.readTree(line).get("id").asLong());
+      }
+      assertTrue(ids.contains(after.getId()));
+      assertFalse(ids.contains(before.getId()));
+      assertFalse(ids.contains(1L), "produtos do seed não têm updatedAt");
+    } finally {
+      productService.delete(before.getId());
+      productService.delete(after.getId());
+    }
+  }
+
+  // alteração recente: o watermark fica export.watermark-lag atrás do relógio,
+  // e a próxima exportação incremental a traz de novo
+  @Test
+  void watermarkLagsBehindRecentChanges() throws IOException {
+    ProductDTO saved = productService.insert(productDTO("Export Watermark"));
+    try {
+      Duration lag = (Duration) ReflectionTestUtils.getField(target(), "watermarkLag");
+      Instant before = Instant.now();
+      Instant watermark = productExportService.watermark();
+      Instant after = Instant.now();
+
+      assertTrue(watermark.isBefore(updatedAt(saved.getId())));
+      assertTrue(!watermark.isBefore(before.minus(lag)) && !watermark.isAfter(after.minus(lag)));
+      assertTrue(export(ProductFileFormat.NDJSON, watermark).stream()
+          .anyMatch(line -> line.contains("\"id\":" + saved.getId() + ",")));
+    } finally {
+      productService.delete(saved.getId());
+    }
+  }
+
+  // sem atraso, o watermark é o maior updatedAt e a próxima exportação vem vazia
+  @Test
+  void watermarkIsTheLatestChangeWithoutLag() throws IOException {
+    ProductDTO saved = productService.insert(productDTO("Export No Lag"));
+    Object target = target();
+    Object lag = ReflectionTestUtils.getField(target, "watermarkLag");
+    ReflectionTestUtils.setField(target, "watermarkLag", Duration.ZERO);
+    try {
+      Instant watermark = productExportService.watermark();
+
+      assertEquals(updatedAt(saved.getId()), watermark);
+      assertEquals(List.of(), export(ProductFileFormat.NDJSON, watermark));
+    } finally {
+      ReflectionTestUtils.setField(target, "watermarkLag", lag);
+      productService.delete(saved.getId());
+    }
+  }
+
+  private List<String> export(ProductFileFormat format, Instant since) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    productExportService.export(out, format, since);
+    String content = out.toString(StandardCharsets.UTF_8);
+    return content.isEmpty() ? List.of() : Arrays.asList(content.split("\n"));
+  }
+
+  private Instant updatedAt(Long id) {
+    return jdbcTemplate.queryForObject("SELECT updated_at FROM tb_product WHERE id = ?", Timestamp.class, id)
+        .toInstant();
+  }
+
+  private Object target() {
+    return AopTestUtils.getTargetObject(productExportService);
+  }
+
+  private static ProductDTO productDTO(String name) {
+    ProductDTO dto = new ProductDTO(null, name, "Produto exportado em teste", 10.0, null);
+    dto.getCategories().add(new CategoryDTO(1L, null));
+    return dto;
+  }
+}
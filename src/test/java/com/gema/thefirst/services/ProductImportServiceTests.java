@@ -0,0 +1,165 @@
+package com.gema.thefirst.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.gema.thefirst.dto.CategoryDTO;
+import com.gema.thefirst.dto.FieldMessage;
+import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.dto.ProductImportDTO;
+import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.dto.RowErrorDTO;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.exceptions.BadRequestException;
+import com.gema.thefirst.services.exceptions.ResourceNotFoundException;
+
+// lotes de 3 e só 2 erros guardados, para exercitar o reprocessamento e o corte
+@SpringBootTest(properties = { "import.batch-size=3", "import.max-errors=2" })
+@ActiveProfiles("test")
+class ProductImportServiceTests {
+
+  private static final String NAME = "Import Probe";
+  private static final String HEADER = "name,description,price,imgUrl,categories";
+  private static final String DESCRIPTION = "Produto importado em teste";
+
+  @Autowired
+  private ProductImportService productImportService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private ProductService productService;
+
+  @AfterEach
+  void deleteImported() {
+    productRepository.searchByName(NAME, PageRequest.of(0, 1000))
+        .forEach(product -> productService.delete(product.getId()));
+  }
+
+  @Test
+  void missingColumnFailsTheJob() {
+    BadRequestException e = assertThrows(BadRequestException.class,
+        () -> importCsv("name,description,imgUrl,categories\n" + NAME + "," + DESCRIPTION + ",,1"));
+
+    assertEquals("Coluna obrigatória ausente no CSV: price", e.getMessage());
+    ProductImportDTO job = productImportService.findAll().get(0);
+    assertEquals(ProductImportJob.Status.FAILED, job.getStatus());
+    assertEquals(e.getMessage(), job.getMessage());
+    assertEquals(0, job.getImported());
+  }
+
+  @Test
+  void emptyCsvIsRejected() {
+    BadRequestException e = assertThrows(BadRequestException.class, () -> importCsv(""));
+    assertEquals("Arquivo CSV vazio", e.getMessage());
+  }
+
+  // colunas em outra ordem, vírgula e aspas dentro de aspas, categorias com ';'
+  @Test
+  void quotedFieldsAreImported() throws IOException {
+    ProductImportDTO job = importCsv("categories,price,name,description\n"
+        + "\"1;2\",12.5,\"" + NAME + ", \"\"Deluxe\"\"\",\"" + DESCRIPTION + ", com vírgula\"");
+
+    assertEquals(ProductImportJob.Status.COMPLETED, job.getStatus());
+    assertEquals(1, job.getImported());
+    ProductDTO product = productService.findById(importedIds().get(0));
+    assertEquals(NAME + ", \"Deluxe\"", product.getName());
+    assertEquals(DESCRIPTION + ", com vírgula", product.getDescription());
+    assertEquals(12.5, product.getPrice());
+    assertEquals(List.of(1L, 2L), product.getCategories().stream().map(CategoryDTO::getId).sorted().toList());
+  }
+
+  // cada linha inválida vira um erro com o número da linha do arquivo (o
+  // cabeçalho é a linha 1); as válidas seguem sendo importadas
+  @Test
+  void invalidRowsAreReportedAndSkipped() throws IOException {
+    ProductImportDTO job = importCsv(HEADER + "\n"
+        + NAME + " 1," + DESCRIPTION + ",abc,,1\n"
+        + NAME + " 2," + DESCRIPTION + ",10.0,,1\n"
+        + "\n"
+        + NAME + " 3," + DESCRIPTION + ",10.0,,99\n");
+
+    assertEquals(ProductImportJob.Status.COMPLETED, job.getStatus());
+    assertEquals(3, job.getProcessed());
+    assertEquals(1, job.getImported());
+    assertEquals(2, job.getFailed());
+    assertEquals(List.of(2L, 5L), job.getErrors().stream().map(RowErrorDTO::getRow).toList());
+    assertEquals("price", job.getErrors().get(0).getErrors().get(0).getFieldName());
+    assertEquals("Categoria inexistente: 99", job.getErrors().get(1).getErrors().get(0).getMessage());
+  }
+
+  // erros de parse e do Bean Validation da mesma linha saem juntos
+  @Test
+  void allErrorsOfARowAreReported() throws IOException {
+    ProductImportDTO job = importCsv(HEADER + "\nab,curta,-1,,x");
+
+    List<String> fields = job.getErrors().get(0).getErrors().stream().map(FieldMessage::getFieldName).sorted()
+        .toList();
+    // categories duas vezes: ID inválido e lista vazia
+    assertEquals(List.of("categories", "categories", "description", "name", "price"), fields);
+  }
+
+  // a linha passa na validação mas o banco recusa (img_url acima de 255): o lote
+  // de 3 volta inteiro e é regravado linha a linha, perdendo só a ruim
+  @Test
+  void failedBatchIsRetriedRowByRow() throws IOException {
+    String longUrl = "https://example.com/" + "x".repeat(300);
+    ProductImportDTO job = importCsv(HEADER + "\n"
+        + NAME + " 1," + DESCRIPTION + ",10.0,,1\n"
+        + NAME + " 2," + DESCRIPTION + ",10.0," + longUrl + ",1\n"
+        + NAME + " 3," + DESCRIPTION + ",10.0,,1\n"
+        + NAME + " 4," + DESCRIPTION + ",10.0,,1\n");
+
+    assertEquals(ProductImportJob.Status.COMPLETED, job.getStatus());
+    assertEquals(3, job.getImported());
+    assertEquals(1, job.getFailed());
+    assertEquals(3L, job.getErrors().get(0).getRow());
+    assertEquals("row", job.getErrors().get(0).getErrors().get(0).getFieldName());
+    assertEquals(List.of(NAME + " 1", NAME + " 3", NAME + " 4"), productRepository
+        .searchByName(NAME, PageRequest.of(0, 10)).map(ProductMinDTO::getName).stream().sorted().toList());
+  }
+
+  // acima de import.max-errors os erros continuam contados, mas não guardados
+  @Test
+  void errorsAboveMaxAreCountedButNotKept() throws IOException {
+    ProductImportDTO job = importNdjson("{\"name\":\"ab\"}\nnot json\n{}\n{\"name\":");
+
+    assertEquals(4, job.getFailed());
+    assertEquals(List.of(1L, 2L), job.getErrors().stream().map(RowErrorDTO::getRow).toList());
+    assertEquals("row", job.getErrors().get(1).getErrors().get(0).getFieldName());
+  }
+
+  @Test
+  void unknownJobIsNotFound() {
+    assertThrows(ResourceNotFoundException.class, () -> productImportService.findById("missing"));
+  }
+
+  private ProductImportDTO importCsv(String content) throws IOException {
+    return productImportService.importProducts(stream(content), ProductFileFormat.CSV);
+  }
+
+  private ProductImportDTO importNdjson(String content) throws IOException {
+    return productImportService.importProducts(stream(content), ProductFileFormat.NDJSON);
+  }
+
+  private List<Long> importedIds() {
+    return productRepository.searchByName(NAME, PageRequest.of(0, 10)).map(ProductMinDTO::getId).getContent();
+  }
+
+  private static ByteArrayInputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,227 @@
+package com.gema.thefirst.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gema.thefirst.dto.CategoryDTO;
+import com.gema.thefirst.dto.CountedPageDTO;
+import com.gema.thefirst.dto.CursorPageDTO;
+import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.dto.ProductLookupDTO;
+import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.cache.ProductCache;
+
+// mesmas propriedades do OrderServiceTests, para dividir o contexto
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.gema.thefirst.services.RecordingStatementInspector",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn" })
+@ActiveProfiles("test")
+class ProductServiceTests {
+
+  private static final long MISSING_ID = 999_001L;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ProductCache productCache;
+
+  // última página com conteúdo: o total sai da própria página, sem count
+  @Test
+  void estimatedTotalIsExactOnTheLastPage() {
+    long total = productRepository.count();
+    int lastPage = (int) ((total - 1) / 10);
+
+    RecordingStatementInspector.clear();
+    CountedPageDTO<ProductMinDTO> page = estimated(PageRequest.of(lastPage, 10));
+
+    assertEquals(total, page.getTotalElements());
+    assertTrue(page.isTotalExact());
+    assertTrue(RecordingStatementInspector.statements().stream().noneMatch(sql -> sql.contains("count(")));
+  }
+
+  // página além do fim não diz nada do total: vale o count do cache
+  @Test
+  void estimatedTotalPastTheEndComesFromTheCache() {
+    long total = productRepository.count();
+    CountedPageDTO<ProductMinDTO> page = awaitExact(PageRequest.of(1000, 10));
+
+    assertFalse(page.hasContent());
+    assertEquals(total, page.getTotalElements());
+  }
+
+  // com próxima página o total é no mínimo uma linha além do que já foi visto,
+  // mesmo com o count em cache menor (gravação por fora do ProductService)
+  @Test
+  void estimatedTotalWithNextPageIsAtLeastOneBeyondTheSeenRows() {
+    long cached = awaitExact(PageRequest.of(0, 5)).getTotalElements();
+    List<Long> created = createProductsWithoutEvents(15);
+    try {
+      // o cache ainda acha que o total é cached
+      CountedPageDTO<ProductMinDTO> first = estimated(PageRequest.of(0, 5));
+      assertEquals(cached, first.getTotalElements());
+      assertTrue(first.isTotalExact());
+
+      int page = (int) (cached / 10);
+      CountedPageDTO<ProductMinDTO> beyond = estimated(PageRequest.of(page, 10));
+      assertTrue(beyond.hasNext());
+      assertEquals(page * 10L + 10 + 1, beyond.getTotalElements());
+      assertFalse(beyond.isTotalExact());
+    } finally {
+      transactionTemplate.executeWithoutResult(status -> productRepository.deleteAllById(created));
+    }
+  }
+
+  // uma gravação pelo ProductService avança a geração: o total antigo volta
+  // marcado como estimado e é recontado em segundo plano
+  @Test
+  void staleCountIsFlaggedAndRefreshed() {
+    long cached = awaitExact(PageRequest.of(0, 5)).getTotalElements();
+    ProductDTO saved = productService.insert(new ProductDTO(null, "Count Probe", "desc", 10.0, null));
+    try {
+      CountedPageDTO<ProductMinDTO> stale = estimated(PageRequest.of(0, 5));
+      assertEquals(cached, stale.getTotalElements());
+      assertFalse(stale.isTotalExact());
+
+      assertEquals(cached + 1, awaitExact(PageRequest.of(0, 5)).getTotalElements());
+    } finally {
+      productService.delete(saved.getId());
+    }
+  }
+
+  // páginas pequenas sobre preços empatados: cada produto aparece uma vez, na ordem
+  @Test
+  void scrollWalksEveryProductExactlyOnce() {
+    List<Long> all = productRepository.findAll().stream().map(Product::getId).sorted().toList();
+
+    for (String sort : List.of("name", "price", "price,desc")) {
+      List<ProductMinDTO> walked = scrollAll("", sort, 4);
+      assertEquals(all, walked.stream().map(ProductMinDTO::getId).sorted().toList(), sort);
+
+      Comparator<ProductMinDTO> order = sort.startsWith("name")
+          ? Comparator.comparing(ProductMinDTO::getName)
+          : Comparator.comparing(ProductMinDTO::getPrice);
+      if (sort.endsWith("desc")) {
+        order = order.reversed();
+      }
+      order = order.thenComparing(ProductMinDTO::getId, sort.endsWith("desc")
+          ? Comparator.reverseOrder() : Comparator.naturalOrder());
+      assertEquals(walked.stream().sorted(order).toList(), walked, sort);
+    }
+  }
+
+  // nomes iguais: o id desempata e nenhuma página pula ou repete produto
+  @Test
+  void scrollBreaksNameTiesById() {
+    List<Long> created = new ArrayList<>();
+    try {
+      for (int i = 0; i < 5; i++) {
+        created.add(productService.insert(new ProductDTO(null, "Scroll Tie", "desc", 10.0, null)).getId());
+      }
+      List<ProductMinDTO> walked = scrollAll("scroll tie", "name", 2);
+      assertEquals(created, walked.stream().map(ProductMinDTO::getId).toList());
+    } finally {
+      created.forEach(productService::delete);
+    }
+  }
+
+  @Test
+  void findAllByIdKeepsRequestOrderAndDuplicates() {
+    List<ProductLookupDTO> result = productService.findAllById(List.of(3L, 1L, 3L, MISSING_ID, 2L));
+
+    assertEquals(List.of(3L, 1L, 3L, MISSING_ID, 2L), result.stream().map(ProductLookupDTO::getId).toList());
+    assertEquals(List.of(true, true, true, false, true), result.stream().map(ProductLookupDTO::isFound).toList());
+    assertEquals("Macbook Pro", result.get(0).getProduct().getName());
+    assertEquals("The Lord of the Rings", result.get(1).getProduct().getName());
+    assertEquals("Smart TV", result.get(4).getProduct().getName());
+    assertNull(result.get(3).getProduct());
+  }
+
+  // os que faltam no cache vêm num único SELECT com IN, já com as categorias
+  @Test
+  void findAllByIdLoadsCacheMissesInOneQueryWithCategories() {
+    List.of(1L, 2L, 3L).forEach(productCache::invalidate);
+
+    RecordingStatementInspector.clear();
+    List<ProductLookupDTO> result = productService.findAllById(List.of(1L, 2L, 3L, MISSING_ID));
+    List<String> statements = RecordingStatementInspector.statements();
+
+    assertEquals(1, statements.size(), statements::toString);
+    assertTrue(statements.get(0).contains("tb_product_category") && statements.get(0).contains(" in (?)"),
+        statements::toString);
+    assertEquals(List.of(2L, 3L), result.get(1).getProduct().getCategories().stream()
+        .map(CategoryDTO::getId).sorted().toList());
+
+    // agora todos estão no cache
+    RecordingStatementInspector.clear();
+    productService.findAllById(List.of(1L, 2L, 3L));
+    assertEquals(List.of(), RecordingStatementInspector.statements());
+  }
+
+  private List<ProductMinDTO> scrollAll(String name, String sort, int size) {
+    List<ProductMinDTO> result = new ArrayList<>();
+    CursorPageDTO<ProductMinDTO> page = productService.scroll(name, sort, size, null);
+    result.addAll(page.getContent());
+    while (page.getNextCursor() != null) {
+      page = productService.scroll(name, sort, size, page.getNextCursor());
+      result.addAll(page.getContent());
+    }
+    return result;
+  }
+
+  private CountedPageDTO<ProductMinDTO> estimated(Pageable pageable) {
+    Slice<ProductMinDTO> result = productService.findAll("", List.of(), false, Set.of(), PageTotalMode.ESTIMATED,
+        pageable);
+    return (CountedPageDTO<ProductMinDTO>) result;
+  }
+
+  // outros testes gravam produtos e deixam o count do cache de geração antiga;
+  // espera a recontagem em segundo plano
+  private CountedPageDTO<ProductMinDTO> awaitExact(Pageable pageable) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    CountedPageDTO<ProductMinDTO> page = estimated(pageable);
+    while (!page.isTotalExact() && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+      page = estimated(pageable);
+    }
+    assertTrue(page.isTotalExact());
+    return page;
+  }
+
+  // direto pelo repositório: sem ProductChangedEvent, a geração não muda
+  private List<Long> createProductsWithoutEvents(int count) {
+    return transactionTemplate.execute(status -> {
+      List<Product> products = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        products.add(new Product(null, "Count Test Product " + i, "desc", 10.0, null));
+      }
+      return productRepository.saveAll(products).stream().map(Product::getId).toList();
+    });
+  }
+}
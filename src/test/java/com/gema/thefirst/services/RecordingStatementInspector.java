@@ -0,0 +1,34 @@
+package com.gema.thefirst.services;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Guarda o SQL de cada comando que o Hibernate prepara, para os testes
+// contarem as consultas de uma chamada. Ligado pela propriedade
+// hibernate.session_factory.statement_inspector.
+public class RecordingStatementInspector implements StatementInspector {
+
+  private static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+  @Override
+  public String inspect(String sql) {
+    STATEMENTS.add(sql);
+    return sql;
+  }
+
+  static void clear() {
+    STATEMENTS.clear();
+  }
+
+  // sem as chamadas de sequence (uma a cada allocationSize gravações, caem em
+  // qualquer chamada) e com a lista do IN reduzida a um parâmetro
+  static List<String> statements() {
+    return STATEMENTS.stream()
+        .map(sql -> sql.replaceAll("\\s+", " ").replaceAll(" in \\((\\?,)*\\?\\)", " in (?)").trim())
+        .filter(sql -> !sql.contains("next value for"))
+        .toList();
+  }
+}
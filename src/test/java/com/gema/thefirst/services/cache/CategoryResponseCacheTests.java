@@ -0,0 +1,45 @@
+package com.gema.thefirst.services.cache;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gema.thefirst.entities.Category;
+import com.gema.thefirst.repositories.CategoryRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryResponseCacheTests {
+
+  @Autowired
+  private CategoryResponseCache categoryResponseCache;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Test
+  void categoryWriteInvalidatesCachedResponse() {
+    CategoryResponseCache.Snapshot before = categoryResponseCache.get();
+    assertSame(before, categoryResponseCache.get());
+
+    Category saved = transactionTemplate.execute(status -> categoryRepository.save(new Category(null, "Games")));
+    try {
+      CategoryResponseCache.Snapshot after = categoryResponseCache.get();
+      assertNotEquals(before.getEtag(), after.getEtag());
+      assertTrue(new String(after.getJson(), StandardCharsets.UTF_8).contains("Games"));
+    } finally {
+      transactionTemplate.executeWithoutResult(status -> categoryRepository.deleteById(saved.getId()));
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.gema.thefirst.services.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+class ExistingIdFilterTests {
+
+  // persist e remove chegam pelo listener em outra thread enquanto a remontagem
+  // ainda lê a tabela, que não tem nem o produto novo nem deixa de ter o removido
+  @Test
+  void changesDuringRebuildSurviveTheSwap() throws InterruptedException {
+    ExistingIdFilter.IdSet set = new ExistingIdFilter.IdSet(false);
+    set.rebuild(ids(1, 2, 3));
+
+    Stream<Long> snapshot = ids(1, 2, 3).peek(id -> {
+      if (id == 2) {
+        Thread writer = new Thread(() -> {
+          set.apply(4L, true);
+          set.apply(1L, false);
+        });
+        writer.start();
+        try {
+          writer.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        // o bitmap antigo já reflete as alterações durante a montagem
+        assertTrue(set.mightContain(4L));
+        assertFalse(set.mightContain(1L));
+      }
+    });
+    set.rebuild(snapshot);
+
+    assertTrue(set.mightContain(4L));
+    assertFalse(set.mightContain(1L));
+    assertTrue(set.mightContain(2L));
+  }
+
+  // gravado antes de a remontagem começar, mas com commit só depois da leitura
+  @Test
+  void persistCommittedAfterSnapshotSurvivesTheNextRebuild() {
+    ExistingIdFilter.IdSet set = new ExistingIdFilter.IdSet(false);
+    set.rebuild(ids(1, 2));
+    set.apply(3L, true);
+
+    set.rebuild(ids(1, 2));
+    assertTrue(set.mightContain(3L));
+
+    // passadas duas remontagens vale a leitura: a transação não chegou ao commit
+    set.rebuild(ids(1, 2));
+    assertFalse(set.mightContain(3L));
+  }
+
+  @Test
+  void singleInstanceRejectsEveryMissingId() {
+    ExistingIdFilter.IdSet set = new ExistingIdFilter.IdSet(false);
+    set.rebuild(ids(1, 2, 4));
+
+    assertFalse(set.mightContain(3L));
+    assertFalse(set.mightContain(1000L));
+    assertFalse(set.mightContain(0L));
+  }
+
+  // IDs criados em outra instância só são recusados depois que uma leitura
+  // posterior à sua criação poderia tê-los visto
+  @Test
+  void multiInstanceOnlyRejectsIdsUpToThePreviousSnapshot() {
+    ExistingIdFilter.IdSet set = new ExistingIdFilter.IdSet(true);
+    set.rebuild(ids(1, 2, 4));
+    assertTrue(set.mightContain(3L));
+    assertTrue(set.mightContain(1000L));
+
+    set.rebuild(LongStream.rangeClosed(1, 10).filter(id -> id != 3).boxed());
+    assertFalse(set.mightContain(3L));
+    assertTrue(set.mightContain(5L));
+    assertTrue(set.mightContain(11L));
+    assertFalse(set.mightContain(0L));
+  }
+
+  // bigint além do int não entra no bitmap e nunca é recusado
+  @Test
+  void idsAboveIntRangeAreNeverRejected() {
+    ExistingIdFilter.IdSet set = new ExistingIdFilter.IdSet(false);
+    set.rebuild(ids(1, 2, 3_000_000_000L));
+    set.apply(4_000_000_000L, true);
+    set.apply(4_000_000_001L, false);
+
+    assertTrue(set.mightContain(3_000_000_000L));
+    assertTrue(set.mightContain(4_000_000_001L));
+    assertTrue(set.mightContain(2L));
+    assertFalse(set.mightContain(3L));
+  }
+
+  private static Stream<Long> ids(long... ids) {
+    return LongStream.of(ids).boxed();
+  }
+}
@@ -0,0 +1,126 @@
+package com.gema.thefirst.services.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.gema.thefirst.dto.CategoryDTO;
+import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.ProductService;
+import com.gema.thefirst.services.exceptions.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCacheTests {
+
+  @Autowired
+  private ProductCache productCache;
+
+  @Autowired
+  private ProductService productService;
+
+  @Test
+  void updateInvalidatesCachedProduct() {
+    ProductDTO original = productCache.get(1L);
+    assertSame(original, productCache.get(1L));
+
+    try {
+      productService.update(1L, copy(original, "The Hobbit"));
+      assertNull(productCache.getIfPresent(1L));
+      assertEquals("The Hobbit", productCache.get(1L).getName());
+    } finally {
+      productService.update(1L, original);
+    }
+    assertEquals(original.getName(), productCache.get(1L).getName());
+  }
+
+  @Test
+  void deleteInvalidatesCachedProduct() {
+    ProductDTO saved = productService.insert(new ProductDTO(null, "Ephemeral Lamp", "desc", 10.0, null));
+    assertNotNull(productCache.get(saved.getId()));
+
+    productService.delete(saved.getId());
+
+    assertNull(productCache.getIfPresent(saved.getId()));
+    assertThrows(ResourceNotFoundException.class, () -> productCache.get(saved.getId()));
+  }
+
+  // vários pedidos errando o cache ao mesmo tempo: uma carga só, o mesmo DTO para todos
+  @Test
+  void concurrentMissesShareOneLoad() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ProductRepository repository = mock(ProductRepository.class);
+    when(repository.findWithCategoriesById(1L)).thenAnswer(invocation -> {
+      loading.countDown();
+      assertTrue(release.await(10, TimeUnit.SECONDS));
+      return Optional.of(new Product(1L, "The Lord of the Rings", "desc", 90.5, null));
+    });
+    ProductCache cache = newCache(repository);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<ProductDTO>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> cache.get(1L)));
+      }
+      assertTrue(loading.await(10, TimeUnit.SECONDS));
+      // os demais chegam enquanto a primeira carga está presa no loader
+      Thread.sleep(200);
+      release.countDown();
+
+      ProductDTO first = results.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<ProductDTO> result : results) {
+        assertSame(first, result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(repository, times(1)).findWithCategoriesById(1L);
+  }
+
+  private static ProductCache newCache(ProductRepository repository) {
+    ProductCache cache = new ProductCache();
+    ReflectionTestUtils.setField(cache, "maxSize", 100L);
+    ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(10));
+    ReflectionTestUtils.setField(cache, "productRepository", repository);
+    ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+    cache.init();
+    return cache;
+  }
+
+  private static ProductDTO copy(ProductDTO dto, String name) {
+    ProductDTO result = new ProductDTO(dto.getId(), name, dto.getDescription(), dto.getPrice(), dto.getImgUrl());
+    for (CategoryDTO category : dto.getCategories()) {
+      result.getCategories().add(category);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,62 @@
+package com.gema.thefirst.services.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gema.thefirst.entities.Role;
+import com.gema.thefirst.entities.User;
+import com.gema.thefirst.projections.UserDetailsProjection;
+import com.gema.thefirst.repositories.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserDetailsCacheTests {
+
+  private static final String EMAIL = "maria@gmail.com";
+  private static final long ROLE_ADMIN = 2L;
+
+  @Autowired
+  private UserDetailsCache userDetailsCache;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  // só tb_user_role muda: nenhum callback JPA do User dispara
+  @Test
+  void grantingAndRevokingRoleEvictsCachedUser() {
+    assertEquals(List.of("ROLE_CLIENT"), authorities());
+
+    transactionTemplate.executeWithoutResult(status -> {
+      User user = userRepository.findByEmail(EMAIL).get();
+      user.addRole(entityManager.getReference(Role.class, ROLE_ADMIN));
+    });
+    try {
+      assertEquals(List.of("ROLE_ADMIN", "ROLE_CLIENT"), authorities());
+    } finally {
+      transactionTemplate.executeWithoutResult(status -> {
+        User user = userRepository.findByEmail(EMAIL).get();
+        user.getAuthorities().removeIf(role -> ((Role) role).getId() == ROLE_ADMIN);
+      });
+    }
+    assertEquals(List.of("ROLE_CLIENT"), authorities());
+  }
+
+  private List<String> authorities() {
+    return userDetailsCache.get(EMAIL).stream().map(UserDetailsProjection::getAuthority).sorted().toList();
+  }
+}
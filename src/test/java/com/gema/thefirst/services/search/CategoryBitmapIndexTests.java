@@ -0,0 +1,108 @@
+package com.gema.thefirst.services.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.gema.thefirst.dto.CategoryDTO;
+import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.ProductService;
+
+// Os bitmaps têm de responder o mesmo que o GROUP BY/HAVING do banco
+// (ProductRepository.searchByNameAndCategories), que é o caminho de fallback
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryBitmapIndexTests {
+
+  private static final Pageable ALL_BY_ID = PageRequest.of(0, 1000, Sort.by("id"));
+
+  @Autowired
+  private CategoryBitmapIndex categoryBitmapIndex;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private ProductService productService;
+
+  // categorias isoladas, combinadas, repetidas e inexistentes
+  @ParameterizedTest
+  @CsvSource({ "1", "3", "2 3", "1 2", "1 2 3", "3 3", "99", "1 99" })
+  void filterMatchesDatabaseFallback(String categories) {
+    List<Long> categoryIds = Arrays.stream(categories.split(" ")).map(Long::valueOf).toList();
+    for (boolean matchAll : List.of(false, true)) {
+      assertEquals(databaseIds(categoryIds, matchAll), indexedIds(categoryIds, matchAll),
+          categories + (matchAll ? " all" : " any"));
+    }
+  }
+
+  // no seed só o produto 2 está em Eletrônicos e Computadores ao mesmo tempo
+  @Test
+  void anyIsUnionAndAllIsIntersection() {
+    List<Long> any = indexedIds(List.of(2L, 3L), false);
+    assertFalse(any.contains(1L));
+    assertFalse(any.contains(5L));
+    assertTrue(any.containsAll(List.of(2L, 3L, 4L)));
+
+    assertEquals(List.of(2L), indexedIds(List.of(2L, 3L), true));
+  }
+
+  // o índice acompanha o copyDtoToEntity quando categorias entram e saem
+  @Test
+  void indexFollowsCategoryChanges() {
+    ProductDTO dto = new ProductDTO(null, "Bitmap Probe", "desc", 10.0, null);
+    dto.getCategories().add(new CategoryDTO(1L, null));
+    ProductDTO saved = productService.insert(dto);
+    Long id = saved.getId();
+    try {
+      assertTrue(indexedIds(List.of(1L), false).contains(id));
+      assertFalse(indexedIds(List.of(2L), false).contains(id));
+
+      saved.getCategories().clear();
+      saved.getCategories().add(new CategoryDTO(2L, null));
+      saved.getCategories().add(new CategoryDTO(3L, null));
+      saved = productService.update(id, saved);
+      assertFalse(indexedIds(List.of(1L), false).contains(id));
+      assertTrue(indexedIds(List.of(2L, 3L), true).contains(id));
+      assertEquals(databaseIds(List.of(1L, 2L, 3L), false), indexedIds(List.of(1L, 2L, 3L), false));
+
+      saved.getCategories().clear();
+      productService.update(id, saved);
+      assertFalse(indexedIds(List.of(1L, 2L, 3L), false).contains(id));
+    } finally {
+      productService.delete(id);
+    }
+    assertEquals(databaseIds(List.of(1L, 2L, 3L), false), indexedIds(List.of(1L, 2L, 3L), false));
+  }
+
+  private List<Long> indexedIds(List<Long> categoryIds, boolean matchAll) {
+    RoaringBitmap bitmap = categoryBitmapIndex.filter(categoryIds, matchAll).orElseThrow();
+    return bitmap.stream().mapToObj(Long::valueOf).toList();
+  }
+
+  // os mesmos parâmetros que o ProductService passa no fallback
+  private List<Long> databaseIds(List<Long> categoryIds, boolean matchAll) {
+    Set<Long> distinct = new HashSet<>(categoryIds);
+    long minMatches = matchAll ? distinct.size() : 1;
+    return productRepository.searchByNameAndCategories("", distinct, minMatches, ALL_BY_ID)
+        .map(ProductMinDTO::getId).getContent();
+  }
+}
@@ -0,0 +1,195 @@
+package com.gema.thefirst.services.search;
+
+import static com.gema.thefirst.constants.Constants.FACET_CATEGORY;
+import static com.gema.thefirst.constants.Constants.FACET_PRICE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.gema.thefirst.dto.CategoryDTO;
+import com.gema.thefirst.dto.CategoryFacetDTO;
+import com.gema.thefirst.dto.FacetedPageDTO;
+import com.gema.thefirst.dto.PriceFacetDTO;
+import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.dto.ProductFacetsDTO;
+import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.PageTotalMode;
+import com.gema.thefirst.services.ProductService;
+
+// As contagens das facetas têm de bater com o que o banco diria para a mesma busca
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductFacetIndexTests {
+
+  private static final Pageable ALL_BY_ID = PageRequest.of(0, 1000, Sort.by("id"));
+  private static final Set<String> BOTH = Set.of(FACET_CATEGORY, FACET_PRICE);
+
+  @Autowired
+  private ProductFacetIndex productFacetIndex;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private ProductService productService;
+
+  @ParameterizedTest
+  @ValueSource(strings = { "", "gamer", "the", "zzz" })
+  void facetsMatchDatabaseCounts(String term) {
+    ProductFacetsDTO facets = facets(productService.findAll(term, List.of(), false, BOTH, PageTotalMode.EXACT,
+        PageRequest.of(0, 5)));
+
+    Map<Long, Long> expectedCategories = new LinkedHashMap<>();
+    for (long categoryId = 1; categoryId <= 3; categoryId++) {
+      long count = productRepository.searchByNameAndCategories(term, Set.of(categoryId), 1, ALL_BY_ID)
+          .getTotalElements();
+      if (count > 0) {
+        expectedCategories.put(categoryId, count);
+      }
+    }
+    Map<Long, Long> categories = new LinkedHashMap<>();
+    facets.getCategories().stream().sorted((a, b) -> a.getId().compareTo(b.getId()))
+        .forEach(x -> categories.put(x.getId(), x.getCount()));
+    assertEquals(expectedCategories, categories);
+
+    double[] buckets = productFacetIndex.getPriceBuckets();
+    long[] expectedPrices = new long[buckets.length];
+    for (ProductMinDTO product : productRepository.searchByName(term, ALL_BY_ID)) {
+      expectedPrices[linearBucket(buckets, product.getPrice())]++;
+    }
+    assertArrayEquals(expectedPrices, facets.getPrices().stream().mapToLong(PriceFacetDTO::getCount).toArray());
+  }
+
+  @Test
+  void categoryFacetsAreSortedByCountThenId() {
+    List<CategoryFacetDTO> categories = facets(productService.findAll("", List.of(), false,
+        Set.of(FACET_CATEGORY), PageTotalMode.EXACT, PageRequest.of(0, 5))).getCategories();
+
+    // no seed: Computadores em 23 produtos, Livros em 2, Eletrônicos em 1
+    assertEquals(List.of(3L, 1L, 2L), categories.stream().map(CategoryFacetDTO::getId).toList());
+    assertEquals("Computadores", categories.get(0).getName());
+  }
+
+  // preço igual ao limite conta na faixa que começa nele; abaixo do primeiro
+  // limite, na primeira; acima do último, na última (sem teto)
+  @Test
+  void pricesOnBucketEdges() {
+    List<Long> created = new ArrayList<>();
+    try {
+      for (double price : new double[] { 0.0, 49.99, 50.0, 99.99, 100.0, 1999.99, 2000.0, 50_000.0 }) {
+        created.add(productService.insert(new ProductDTO(null, "Facet Edge", "desc", price, null)).getId());
+      }
+      ProductFacetIndex.Counts counts = productFacetIndex.count(bitmap(created), true, true).orElseThrow();
+
+      assertArrayEquals(new long[] { 2, 2, 1, 0, 1, 2 }, counts.getByPrice());
+      // sem categoria: entra nas faixas de preço, não nas categorias
+      assertEquals(Map.of(), counts.getByCategory());
+
+      List<PriceFacetDTO> prices = facets(productService.findAll("facet edge", List.of(), false,
+          Set.of(FACET_PRICE), PageTotalMode.EXACT, PageRequest.of(0, 5))).getPrices();
+      assertEquals(50.0, prices.get(1).getMin());
+      assertEquals(100.0, prices.get(1).getMax());
+      assertNull(prices.get(prices.size() - 1).getMax());
+      assertEquals(2L, prices.get(1).getCount());
+    } finally {
+      created.forEach(productService::delete);
+    }
+  }
+
+  @Test
+  void productWithAndWithoutCategoryAreCountedApart() {
+    ProductDTO categorized = new ProductDTO(null, "Facet Mixed", "desc", 10.0, null);
+    categorized.getCategories().add(new CategoryDTO(1L, null));
+    categorized.getCategories().add(new CategoryDTO(2L, null));
+    List<Long> created = List.of(productService.insert(categorized).getId(),
+        productService.insert(new ProductDTO(null, "Facet Mixed", "desc", 20.0, null)).getId());
+    try {
+      ProductFacetIndex.Counts counts = productFacetIndex.count(bitmap(created), true, true).orElseThrow();
+
+      assertEquals(Map.of(1L, 1L, 2L, 1L), counts.getByCategory());
+      assertEquals(2L, counts.getByPrice()[0]);
+    } finally {
+      created.forEach(productService::delete);
+    }
+  }
+
+  // índice ainda não montado: a listagem sai normalmente, sem as facetas
+  @Test
+  void facetsAreNullWhileTheIndexIsNotReady() {
+    ProductFacetIndex unbuilt = new ProductFacetIndex();
+    ReflectionTestUtils.setField(unbuilt, "priceBuckets", productFacetIndex.getPriceBuckets());
+    withField("productFacetIndex", unbuilt, () -> {
+      FacetedPageDTO<ProductMinDTO> page = faceted(productService.findAll("gamer", List.of(), false, BOTH,
+          PageTotalMode.EXACT, PageRequest.of(0, 5)));
+      assertEquals(productRepository.searchByName("gamer", ALL_BY_ID).getTotalElements(), page.getTotalElements());
+      assertNull(page.getFacets());
+    });
+  }
+
+  // sem os bitmaps de categoria o filtro vai ao banco, e as facetas não são calculadas
+  @Test
+  void facetsAreNullWhenTheCategoryFilterFallsBack() {
+    withField("categoryBitmapIndex", new CategoryBitmapIndex(), () -> {
+      FacetedPageDTO<ProductMinDTO> page = faceted(productService.findAll("", List.of(1L), false, BOTH,
+          PageTotalMode.EXACT, PageRequest.of(0, 5)));
+      assertEquals(List.of(1L, 5L), page.getContent().stream().map(ProductMinDTO::getId).sorted().toList());
+      assertNull(page.getFacets());
+    });
+  }
+
+  // troca um colaborador do ProductService de verdade (não do proxy) durante a ação
+  private void withField(String field, Object value, Runnable action) {
+    Object target = AopTestUtils.getTargetObject(productService);
+    Object original = ReflectionTestUtils.getField(target, field);
+    ReflectionTestUtils.setField(target, field, value);
+    try {
+      action.run();
+    } finally {
+      ReflectionTestUtils.setField(target, field, original);
+    }
+  }
+
+  private static FacetedPageDTO<ProductMinDTO> faceted(Object result) {
+    return (FacetedPageDTO<ProductMinDTO>) result;
+  }
+
+  private static ProductFacetsDTO facets(Object result) {
+    return faceted(result).getFacets();
+  }
+
+  private static RoaringBitmap bitmap(List<Long> ids) {
+    RoaringBitmap bitmap = new RoaringBitmap();
+    ids.forEach(id -> bitmap.add(id.intValue()));
+    return bitmap;
+  }
+
+  private static int linearBucket(double[] buckets, double price) {
+    int bucket = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      if (price >= buckets[i]) {
+        bucket = i;
+      }
+    }
+    return bucket;
+  }
+}
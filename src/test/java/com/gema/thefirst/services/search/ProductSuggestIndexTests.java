@@ -0,0 +1,126 @@
+package com.gema.thefirst.services.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.gema.thefirst.dto.ProductSuggestionDTO;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.services.ProductService;
+import com.gema.thefirst.services.events.OrderPlacedEvent;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+import com.gema.thefirst.services.exceptions.BadRequestException;
+
+// Os produtos de teste entram direto pelos eventos que o índice escuta, com IDs
+// fora do banco, e saem no fim de cada teste.
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSuggestIndexTests {
+
+  private static final long ALPHA = 9001L;
+  private static final long BETA = 9002L;
+  private static final long GAMMA = 9003L;
+  // as vendas não saem do índice: o teste de ranking usa IDs só dele
+  private static final long RANKED_ALPHA = 9101L;
+  private static final long RANKED_BETA = 9102L;
+  private static final long RANKED_GAMMA = 9103L;
+
+  @Autowired
+  private ProductSuggestIndex index;
+
+  @Autowired
+  private ProductService productService;
+
+  @AfterEach
+  void removeTestProducts() {
+    for (long id : List.of(ALPHA, BETA, GAMMA, RANKED_ALPHA, RANKED_BETA, RANKED_GAMMA)) {
+      index.onProductChanged(ProductChangedEvent.deleted(id));
+    }
+  }
+
+  // da carga inicial: sem acento nem caixa, pelo começo do nome
+  @Test
+  void prefixOfNameIgnoresCaseAndAccents() {
+    assertEquals(List.of(3L), ids(index.suggest("mac", 10)));
+    assertEquals(List.of(3L), ids(index.suggest("MÁC", 10)));
+    assertEquals(List.of(), ids(index.suggest("xyz", 10)));
+    assertEquals(List.of(), ids(index.suggest("  ", 10)));
+  }
+
+  @Test
+  void prefixOfAnyWordMatches() {
+    save(ALPHA, "Zephyr Alpha");
+    save(BETA, "Café Zéfiro");
+
+    assertEquals(List.of(3L), ids(index.suggest("pro", 10)));
+    assertEquals(List.of(ALPHA), ids(index.suggest("alp", 10)));
+    assertEquals(List.of(BETA), ids(index.suggest("zefi", 10)));
+    // o nome inteiro também é chave: prefixo que atravessa palavras
+    assertEquals(List.of(ALPHA), ids(index.suggest("zephyr a", 10)));
+  }
+
+  // mais vendidos primeiro; no empate, o nome mais curto
+  @Test
+  void rankingFollowsSalesThenNameLength() {
+    save(RANKED_ALPHA, "Zephyr Alpha Long");
+    save(RANKED_BETA, "Zephyr Beta");
+    save(RANKED_GAMMA, "Zephyr Gamma");
+
+    assertEquals(List.of(RANKED_BETA, RANKED_GAMMA, RANKED_ALPHA), ids(index.suggest("zeph", 10)));
+
+    index.onOrderPlaced(new OrderPlacedEvent(null, Map.of(RANKED_ALPHA, 5)));
+    index.onOrderPlaced(new OrderPlacedEvent(null, Map.of(RANKED_GAMMA, 2)));
+    assertEquals(List.of(RANKED_ALPHA, RANKED_GAMMA, RANKED_BETA), ids(index.suggest("zeph", 10)));
+    assertEquals(List.of(RANKED_ALPHA, RANKED_GAMMA), ids(index.suggest("zeph", 2)));
+  }
+
+  // prefixos acima da profundidade da trie filtram as entradas do último nó
+  @Test
+  void longPrefixFiltersDeepestNode() {
+    save(ALPHA, "Zephyrantes Alpha");
+    save(BETA, "Zephyrantes Beta");
+
+    assertEquals(List.of(BETA, ALPHA), ids(index.suggest("zephyran", 10)));
+    assertEquals(List.of(BETA), ids(index.suggest("zephyrantes b", 10)));
+    assertEquals(List.of(), ids(index.suggest("zephyrantes c", 10)));
+  }
+
+  @Test
+  void renameAndDeleteUpdateSuggestions() {
+    save(ALPHA, "Zephyr Alpha");
+    assertEquals(List.of(ALPHA), ids(index.suggest("zeph", 10)));
+
+    save(ALPHA, "Quokka Alpha");
+    assertEquals(List.of(), ids(index.suggest("zeph", 10)));
+    assertEquals(List.of(ALPHA), ids(index.suggest("quok", 10)));
+    assertEquals("Quokka Alpha", index.suggest("quok", 10).get(0).getName());
+
+    index.onProductChanged(ProductChangedEvent.deleted(ALPHA));
+    assertEquals(List.of(), ids(index.suggest("quok", 10)));
+    assertEquals(List.of(), ids(index.suggest("alp", 10)));
+  }
+
+  @Test
+  void sizeAboveTopKIsRejected() {
+    int topK = index.getTopK();
+    assertTrue(productService.suggest("pc", topK).size() <= topK);
+    assertThrows(BadRequestException.class, () -> productService.suggest("pc", topK + 1));
+  }
+
+  private void save(long id, String name) {
+    index.onProductChanged(ProductChangedEvent.saved(new Product(id, name, "", 1.0, "")));
+  }
+
+  private static List<Long> ids(List<ProductSuggestionDTO> suggestions) {
+    return suggestions.stream().map(ProductSuggestionDTO::getId).toList();
+  }
+}
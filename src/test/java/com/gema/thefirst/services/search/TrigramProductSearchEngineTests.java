@@ -0,0 +1,134 @@
+package com.gema.thefirst.services.search;
+
+import static com.gema.thefirst.constants.Constants.FACET_PRICE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.gema.thefirst.dto.FacetedPageDTO;
+import com.gema.thefirst.dto.ProductDTO;
+import com.gema.thefirst.dto.ProductMinDTO;
+import com.gema.thefirst.entities.Category;
+import com.gema.thefirst.entities.Product;
+import com.gema.thefirst.repositories.ProductRepository;
+import com.gema.thefirst.services.PageTotalMode;
+import com.gema.thefirst.services.ProductService;
+import com.gema.thefirst.services.events.ProductChangedEvent;
+
+// O índice tem de responder o mesmo que o LIKE do banco (ProductRepository.searchByName)
+@SpringBootTest
+@ActiveProfiles("test")
+class TrigramProductSearchEngineTests {
+
+  private static final Pageable ALL_BY_NAME = PageRequest.of(0, 1000, Sort.by("name", "id"));
+
+  @Autowired
+  private TrigramProductSearchEngine engine;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private CategoryBitmapIndex categoryBitmapIndex;
+
+  @Autowired
+  private ProductFacetIndex productFacetIndex;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  // termos com trigrama, menores que um trigrama, com caixa diferente e sem resultado
+  @ParameterizedTest
+  @ValueSource(strings = { "gamer", "PC GAMER", "the", "lord of", "x", "pc", "Ma", "er", "zzz", "" })
+  void searchMatchesSqlLikeInTheSameOrder(String term) {
+    List<Long> indexed = engine.search(term, null, ALL_BY_NAME).orElseThrow().getContent();
+    assertEquals(databaseIds(term, ALL_BY_NAME), indexed);
+  }
+
+  @Test
+  void descendingSortMatchesDatabase() {
+    Pageable pageable = PageRequest.of(1, 5, Sort.by(Sort.Order.desc("name"), Sort.Order.asc("id")));
+    assertEquals(databaseIds("gamer", pageable), engine.search("gamer", null, pageable).orElseThrow().getContent());
+  }
+
+  @Test
+  void totalMatchesDatabaseCount() {
+    Pageable pageable = PageRequest.of(0, 3, Sort.by("name"));
+    assertEquals(productRepository.searchByName("gamer", pageable).getTotalElements(),
+        engine.search("gamer", null, pageable).orElseThrow().getTotalElements());
+  }
+
+  @Test
+  void indexFollowsInsertUpdateAndDelete() {
+    ProductDTO saved = productService.insert(new ProductDTO(null, "Quixotic Blender", "desc", 10.0, null));
+    try {
+      assertEquals(List.of(saved.getId()), search("xotic"));
+      assertEquals(List.of(saved.getId()), search("qu"));
+
+      productService.update(saved.getId(), new ProductDTO(null, "Zephyr Mixer", "desc", 10.0, null));
+      assertTrue(search("xotic").isEmpty());
+      assertEquals(List.of(saved.getId()), search("ephyr"));
+    } finally {
+      productService.delete(saved.getId());
+    }
+    assertTrue(search("ephyr").isEmpty());
+    assertFalse(engine.matching("", null).orElseThrow().contains(Math.toIntExact(saved.getId())));
+  }
+
+  // bigint além do int: os índices em memória param de atender e a listagem vai ao banco
+  @Test
+  void idAboveIntRangeSendsListingToTheDatabase() {
+    Product huge = new Product(3_000_000_000L, "Oversized Gamer Desk", "desc", 10.0, null);
+    huge.getCategories().add(new Category(1L, null));
+    Pageable pageable = PageRequest.of(0, 5, Sort.by("name", "id"));
+    try {
+      eventPublisher.publishEvent(ProductChangedEvent.saved(huge));
+
+      assertTrue(engine.search("gamer", null, pageable).isEmpty());
+      assertTrue(engine.matching("gamer", null).isEmpty());
+      assertTrue(categoryBitmapIndex.filter(List.of(1L), false).isEmpty());
+      Slice<ProductMinDTO> page = productService.findAll("gamer", List.of(1L), false, Set.of(FACET_PRICE),
+          PageTotalMode.EXACT, pageable);
+      assertEquals(databaseIds("gamer", List.of(1L), pageable), page.map(ProductMinDTO::getId).getContent());
+      assertNull(((FacetedPageDTO<ProductMinDTO>) page).getFacets());
+    } finally {
+      eventPublisher.publishEvent(ProductChangedEvent.deleted(huge.getId()));
+      engine.build();
+      categoryBitmapIndex.build();
+      productFacetIndex.build();
+    }
+    assertTrue(engine.search("gamer", null, pageable).isPresent());
+  }
+
+  private List<Long> search(String term) {
+    return engine.search(term, null, ALL_BY_NAME).orElseThrow().getContent();
+  }
+
+  private List<Long> databaseIds(String term, List<Long> categoryIds, Pageable pageable) {
+    return productRepository.searchByNameAndCategories(term, Set.copyOf(categoryIds), 1, pageable).getContent()
+        .stream().map(ProductMinDTO::getId).toList();
+  }
+
+  private List<Long> databaseIds(String term, Pageable pageable) {
+    return productRepository.searchByName(term, pageable).getContent().stream().map(ProductMinDTO::getId).toList();
+  }
+}
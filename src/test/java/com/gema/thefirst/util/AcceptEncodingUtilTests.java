@@ -0,0 +1,34 @@
+package com.gema.thefirst.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class AcceptEncodingUtilTests {
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+      "gzip                     | true",
+      "GZIP                     | true",
+      "x-gzip                   | true",
+      "gzip, deflate, br        | true",
+      "gzip;q=0.5               | true",
+      "gzip ; q=1.0             | true",
+      "*                        | true",
+      "br, *;q=0.1              | true",
+      "gzip;q=0                 | false",
+      "gzip;q=0.000             | false",
+      "gzip;q=abc               | false",
+      "x-gzip-foo               | false",
+      "deflate, br              | false",
+      "*;q=0                    | false",
+      "gzip;q=0, *              | false",
+      "gzip;q=0.5, identity     | false",
+      "gzip, identity;q=0.5     | true",
+      "''                       | false",
+  })
+  void acceptsGzip(String acceptEncoding, boolean expected) {
+    assertEquals(expected, AcceptEncodingUtil.acceptsGzip(acceptEncoding));
+  }
+}
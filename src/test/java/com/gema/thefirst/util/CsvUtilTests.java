@@ -0,0 +1,49 @@
+package com.gema.thefirst.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CsvUtilTests {
+
+  @Test
+  void plainAndEmptyFields() {
+    assertEquals(List.of("a", "", "c", ""), CsvUtil.parseLine("a,,c,"));
+    assertEquals(List.of(""), CsvUtil.parseLine(""));
+  }
+
+  // vírgula e aspas dentro de aspas, e "" como aspas literal
+  @Test
+  void quotedFields() {
+    assertEquals(List.of("Lamp, \"Deluxe\"", "12.5", ""), CsvUtil.parseLine("\"Lamp, \"\"Deluxe\"\"\",12.5,\"\""));
+    assertEquals(List.of("1;2", "x"), CsvUtil.parseLine("\"1;2\",x"));
+  }
+
+  @Test
+  void unclosedQuoteIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> CsvUtil.parseLine("\"Lamp,12.5"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "plain", "with, comma", "with \"quotes\"", "" })
+  void formattedFieldParsesBack(String value) {
+    String line = CsvUtil.formatField(value) + "," + CsvUtil.formatField("next");
+    assertEquals(List.of(value, "next"), CsvUtil.parseLine(line));
+  }
+
+  // a exportação aspeia quebras de linha, mesmo que a importação não as leia
+  @Test
+  void lineBreakIsQuoted() {
+    assertEquals("\"line\nbreak\"", CsvUtil.formatField("line\nbreak"));
+  }
+
+  @Test
+  void nullIsAnEmptyField() {
+    assertEquals("", CsvUtil.formatField(null));
+  }
+}